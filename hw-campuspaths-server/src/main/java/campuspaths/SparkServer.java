@@ -12,45 +12,52 @@
 package campuspaths;
 
 import campuspaths.utils.CORSFilter;
+import campuspaths.utils.CampusData;
+import campuspaths.utils.ServerThreads;
 import pathfinder.CampusMap;
+import pathfinder.datastructures.CompactPath;
 import pathfinder.datastructures.Point;
 import pathfinder.datastructures.Path;
-import pathfinder.parser.CampusPathsParser;
-import pathfinder.parser.CampusBuilding;
-import pathfinder.parser.CampusPath;
 
-import com.google.gson.Gson;
 import spark.Request;
 import spark.Response;
 import spark.Route;
 import spark.Spark;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 public class SparkServer {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Pick the request thread pool (see ServerThreads) before anything starts the server.
+        ServerThreads.configure();
+
         CORSFilter corsFilter = new CORSFilter();
         corsFilter.apply();
         // The above two lines help set up some settings that allow the
         // React application to make requests to the Spark server, even though it
         // comes from a different server.
 
-        // create an instance of CampusMap that you can use to fulfill requests that are
-        // sent to your server.
-        String buildingsFile = "campus_buildings.csv";
-        String pathsFile = "campus_paths.csv";
-        List<CampusBuilding> buildings = CampusPathsParser.parseCampusBuildings(buildingsFile);
-        List<CampusPath> paths = CampusPathsParser.parseCampusPaths(pathsFile);
-        CampusMap map = new CampusMap(buildings, paths);
+        // Load the campus data. It can be reloaded while the server runs (see the reload route),
+        // so every request takes one snapshot of it and answers entirely from that.
+        CampusData data = new CampusData();
+        data.watch();
 
         // findPath route
         Spark.get("/findPath", new Route() {
             @Override
             public Object handle(Request request, Response response) throws Exception {
 
+                CampusData.Snapshot snapshot = data.current();
+                CampusMap map = snapshot.map;
                 String start = request.queryParams("start");
                 String end = request.queryParams("end");
 
@@ -67,18 +74,164 @@ public class SparkServer {
                 }
 
                 // Call findShortestPath method from the CampusMap
-                Path<Point> shortestPath = map.findShortestPath(start, end);
+                // Identical route requests that arrive together share one computation
+                Path<Point> shortestPath = snapshot.routes.findShortestPath(start, end);
+
+                // Stream the JSON straight into the response, instead of building the whole string
+                // in memory first.
+                Writer out = responseWriter(response);
+                writePath(shortestPath == null ? null : new CompactPath(shortestPath), out);
+                out.flush();
+                return "";
+            }
+        });
+
+        // findPaths route: many routes in one request, as repeated start and end parameters that
+        // pair up in order, e.g. /findPaths?start=CSE&end=KNE&start=CSE&end=MGH
+        Spark.get("/findPaths", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+
+                CampusMap map = data.current().map;
+                String[] starts = request.queryParamsValues("start");
+                String[] ends = request.queryParamsValues("end");
+                if (starts == null || ends == null || starts.length != ends.length) {
+                    Spark.halt(400, "Every start building needs an end building.");
+                }
+
+                // check that every building is a valid short name, reporting the first that isn't
+                for (int i = 0; i < starts.length; i++) {
+                    if (!map.shortNameExists(starts[i])) {
+                        Spark.halt(400, "The input start building " + starts[i] + " does not exist or it's not the correct short name of it.");
+                    }
+                    if (!map.shortNameExists(ends[i])) {
+                        Spark.halt(400, "The input end building " + ends[i] + " does not exist or it's not the correct short name of it.");
+                    }
+                }
+
+                // One search per distinct start building, run in parallel, answers every pair
+                List<CompactPath> shortestPaths = map.findShortestPaths(Arrays.asList(starts), Arrays.asList(ends));
 
-                // Gson is Google's library for dealing with JSON. It'll take any Java Object
-                // and convert it to a JSON string that represents the data inside that object.
-                Gson gson = new Gson();
-                String jsonResponse = gson.toJson(shortestPath);
-                return jsonResponse;
+                Writer out = responseWriter(response);
+                out.append('[');
+                for (int i = 0; i < shortestPaths.size(); i++) {
+                    if (i > 0) {
+                        out.append(',');
+                    }
+                    writePath(shortestPaths.get(i), out);
+                }
+                out.append(']');
+                out.flush();
+                return "";
             }
         });
 
+        // distances route: the cost of the shortest path from one building to every building,
+        // e.g. /distances?from=CSE gives {"BAG":1234.5,...,"CSE":0.0,...}
+        Spark.get("/distances", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
 
+                CampusMap map = data.current().map;
+                String from = request.queryParams("from");
+                if (!map.shortNameExists(from)) {
+                    Spark.halt(400, "The input building does not exist or it's not the correct short name of it.");
+                }
+
+                // One full search over the campus graph answers every building
+                Map<String, Double> distances = map.distancesFrom(from);
 
+                Writer out = responseWriter(response);
+                writeCosts(distances, out);
+                out.flush();
+                return "";
+            }
+        });
+
+        // reload route: rebuild the campus map from the data files in the background and swap it
+        // in once it is ready. Only accepted from the machine the server runs on.
+        Spark.post("/admin/reload", new Route() {
+            @Override
+            public Object handle(Request request, Response response) throws Exception {
+                InetAddress client = InetAddress.getByName(request.ip());
+                if (!client.isLoopbackAddress()) {
+                    Spark.halt(403, "The campus data can only be reloaded from the server's own machine.");
+                }
+                data.reload();
+                response.status(202);
+                return "Reloading the campus data.";
+            }
+        });
+
+    }
+
+    /**
+     * Opens a writer of UTF-8 text straight into a response's body. The writer is made for this
+     * one response and buffers what is written to it, so it must be flushed once the body is done.
+     *
+     * @param response the response to write the body of
+     * @return a writer of the response body
+     * @throws IOException if the response body cannot be opened
+     */
+    private static Writer responseWriter(Response response) throws IOException {
+        return new OutputStreamWriter(response.raw().getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a route as JSON, in the form the front end reads, or the JSON literal null if there
+     * is no route.
+     *
+     * @param path the route to write, or null
+     * @param out  where to write it
+     * @throws IOException if out throws it
+     */
+    private static void writePath(CompactPath path, Writer out) throws IOException {
+        if (path == null) {
+            out.append("null");
+        } else {
+            path.writeJson(out);
+        }
+    }
+
+    /**
+     * Writes a table of route costs as a JSON object from each building's short name to its
+     * cost, with the JSON literal null for a cost that is infinite because there is no route.
+     *
+     * @param costs the costs to write, keyed by short name
+     * @param out   where to write them
+     * @throws IOException if out throws it
+     */
+    private static void writeCosts(Map<String, Double> costs, Writer out) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Double> entry : costs.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            writeString(entry.getKey(), out);
+            out.append(':');
+            out.append(Double.isFinite(entry.getValue()) ? Double.toString(entry.getValue()) : "null");
+        }
+        out.append('}');
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes and control characters.
+     */
+    private static void writeString(String text, Writer out) throws IOException {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
     }
 
 }
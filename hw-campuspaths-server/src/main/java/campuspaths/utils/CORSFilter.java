@@ -66,9 +66,13 @@ public class CORSFilter {
         Filter filter = new Filter() {
             @Override
             public void handle(Request request, Response response) {
-                corsHeaders.forEach(response::header);
+                // setHeader rather than addHeader, since the filter runs twice per request
+                corsHeaders.forEach(response.raw()::setHeader);
             }
         };
+        // Routes that stream their response commit the headers before the after-filters run,
+        // so the headers are also set before the route.
+        Spark.before(filter);
         Spark.afterAfter(filter); // Applies this filter even if there's a halt() or exception.
         //
         Logger logger = LoggerFactory.getLogger("CampusPaths Server");
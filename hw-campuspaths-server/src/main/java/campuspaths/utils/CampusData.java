@@ -0,0 +1,276 @@
+package campuspaths.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pathfinder.CampusMap;
+import pathfinder.CoalescingModel;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CampusData holds the campus map the server answers requests with, and replaces it with a
+ * freshly built one when the campus data changes, without restarting the server.
+ * <p>
+ * A reload parses the data files and builds the new map, with all of its routing structures, on
+ * a background thread while the old map keeps answering requests. The new map is then swapped in
+ * with a single atomic write. A request handler should call {@link #current()} once and use the
+ * snapshot it gets for the whole request: a request that started before a swap finishes on the
+ * old map, and every request after the swap sees only the new one. A failed reload leaves the
+ * old map in place.
+ * <p>
+ * The data is read from the directory named by the {@code campuspaths.data} system property, or
+ * from the files bundled on the classpath if it is not set. When the directory is set, CampusData
+ * can also watch it and reload whenever one of the data files changes.
+ * <p>
+ * A data file should be replaced atomically: write the new version to another file in the same
+ * directory, then rename it over the old one (as {@code mv} does), so the data file is never seen
+ * half-written. A file written in place instead can be caught part-way, and a part that ends at a
+ * line break parses as complete data. Two guards make that unlikely rather than impossible: the
+ * watcher waits until neither file has changed for a settle time before it reloads, so a file that
+ * is written quickly (or both files, written one after the other) is reloaded once, whole; and a
+ * reload that sees a data file change while reading it is thrown away, since the change will set
+ * off another reload.
+ */
+public class CampusData {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("CampusPaths Server");
+
+    private static final String BUILDINGS_FILE = "campus_buildings.csv";
+    private static final String PATHS_FILE = "campus_paths.csv";
+
+    /**
+     * How long the watcher waits with no further change to the data files before it reloads, in
+     * milliseconds, unless told otherwise.
+     */
+    public static final long DEFAULT_SETTLE_MILLIS = 500;
+
+    /**
+     * One consistent version of the campus data: a map, and the coalescing front requests are
+     * answered through.
+     */
+    public static class Snapshot {
+        /**
+         * The campus map built from this version of the data.
+         */
+        public final CampusMap map;
+
+        /**
+         * Merges identical route requests that arrive together into one query of {@link #map}.
+         */
+        public final CoalescingModel routes;
+
+        private Snapshot(CampusMap map) {
+            this.map = map;
+            this.routes = new CoalescingModel(map);
+        }
+    }
+
+    // The directory the data files are read from, or null for the files on the classpath
+    private final Path directory;
+
+    private final AtomicReference<Snapshot> current;
+
+    // Runs one reload at a time, so reloads asked for together are applied in order
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "campuspaths-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Loads the campus data from the directory named by the {@code campuspaths.data} system
+     * property, or from the classpath if it is not set.
+     *
+     * @throws CampusPathsParser.ParserException if the data cannot be read or parsed
+     */
+    public CampusData() {
+        this(dataDirectory());
+    }
+
+    /**
+     * Loads the campus data from the given directory, or from the classpath if it is null.
+     *
+     * @param directory the directory holding campus_buildings.csv and campus_paths.csv, or null
+     * @throws CampusPathsParser.ParserException if the data cannot be read or parsed
+     */
+    public CampusData(Path directory) {
+        this.directory = directory;
+        this.current = new AtomicReference<>(load());
+        LOGGER.info("Loaded campus data from " + source());
+    }
+
+    /**
+     * @return the snapshot of the campus data that requests should be answered with right now
+     */
+    public Snapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Rebuilds the campus map from the data files in the background, then swaps it in.
+     *
+     * @return a future that completes with the new snapshot once it has been swapped in, or
+     * exceptionally if the data could not be read, in which case the old snapshot stays current
+     */
+    public CompletableFuture<Snapshot> reload() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Object> before = fileStamps();
+            Snapshot fresh = load();
+            if (!before.equals(fileStamps())) {
+                throw new IllegalStateException("The campus data changed while it was being read");
+            }
+            current.set(fresh);
+            LOGGER.info("Reloaded campus data from " + source());
+            return fresh;
+        }, reloader).whenComplete((snapshot, e) -> {
+            if (e != null) {
+                LOGGER.error("Could not reload campus data, keeping the current data", e);
+            }
+        });
+    }
+
+    /**
+     * Starts a daemon thread that reloads the campus data whenever a data file in the data
+     * directory is created or modified, once the files have settled for
+     * {@link #DEFAULT_SETTLE_MILLIS}. Does nothing if the data is read from the classpath, since
+     * the files on the classpath are not watched.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    public void watch() throws IOException {
+        watch(DEFAULT_SETTLE_MILLIS);
+    }
+
+    /**
+     * Starts a daemon thread that reloads the campus data whenever a data file in the data
+     * directory is created or modified. Each reload waits until no data file has changed for
+     * settleMillis, so a burst of writes, such as writing both files, sets off one reload at the
+     * end of it. Does nothing if the data is read from the classpath, since
+     * the files on the classpath are not watched.
+     *
+     * @param settleMillis how long the data files must go unchanged before they are reloaded, in
+     *                     milliseconds
+     * @throws IOException if the directory cannot be watched
+     * @throws IllegalArgumentException if settleMillis is negative
+     */
+    public void watch(long settleMillis) throws IOException {
+        if (settleMillis < 0) {
+            throw new IllegalArgumentException("The settle time cannot be negative: " + settleMillis);
+        }
+        if (directory == null) {
+            return;
+        }
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    if (!dataFileChanged(watcher.take())) {
+                        continue;
+                    }
+                    // wait out the burst: every further change restarts the settle time
+                    WatchKey key;
+                    while ((key = watcher.poll(settleMillis, TimeUnit.MILLISECONDS)) != null) {
+                        dataFileChanged(key);
+                    }
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // stop watching
+            }
+        }, "campuspaths-watch");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Watching " + directory + " for changes to the campus data");
+    }
+
+    /**
+     * Takes the events of a watch key and resets it.
+     *
+     * @return true if one of the events was to a data file
+     */
+    private static boolean dataFileChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object file = event.context();
+            if (file instanceof Path) {
+                String name = file.toString();
+                changed |= name.equals(BUILDINGS_FILE) || name.equals(PATHS_FILE);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * @return the size and modification time of each data file, so that a write to one between
+     * two calls can be noticed, or an empty list for the files on the classpath
+     */
+    private List<Object> fileStamps() {
+        List<Object> stamps = new ArrayList<>();
+        if (directory != null) {
+            for (String name : List.of(BUILDINGS_FILE, PATHS_FILE)) {
+                Path file = directory.resolve(name);
+                try {
+                    stamps.add(Files.size(file));
+                    stamps.add(Files.getLastModifiedTime(file));
+                } catch (IOException e) {
+                    // a missing file fails the load itself
+                    stamps.add(null);
+                }
+            }
+        }
+        return stamps;
+    }
+
+    /**
+     * Parses the data files and builds a new snapshot from them.
+     */
+    private Snapshot load() {
+        List<CampusBuilding> buildings;
+        List<CampusPath> paths;
+        if (directory == null) {
+            buildings = CampusPathsParser.parseCampusBuildings(BUILDINGS_FILE);
+            paths = CampusPathsParser.parseCampusPaths(PATHS_FILE);
+        } else {
+            buildings = CampusPathsParser.parseCampusBuildings(directory.resolve(BUILDINGS_FILE));
+            paths = CampusPathsParser.parseCampusPaths(directory.resolve(PATHS_FILE));
+        }
+        return new Snapshot(new CampusMap(buildings, paths));
+    }
+
+    /**
+     * @return the directory named by the {@code campuspaths.data} system property, or null if it
+     * is not set
+     */
+    private static Path dataDirectory() {
+        String dir = System.getProperty("campuspaths.data");
+        return dir == null ? null : Paths.get(dir);
+    }
+
+    /**
+     * @return where the data files are read from, for the log
+     */
+    private String source() {
+        return directory == null ? "the classpath" : directory.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package campuspaths.utils;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServerThreads chooses how the Spark server runs its requests, from system properties read at
+ * startup:
+ * <ul>
+ *     <li>{@code campuspaths.threads} is {@code default} for Spark's own Jetty pool,
+ *     {@code virtual} to run every request on its own virtual thread, or {@code bounded} for a
+ *     fixed-size pool of platform threads with a bounded queue of waiting requests.</li>
+ *     <li>{@code campuspaths.threads.max} is the most threads a bounded pool runs at once
+ *     (default 200).</li>
+ *     <li>{@code campuspaths.threads.min} is the fewest threads a bounded pool keeps alive
+ *     (default 8).</li>
+ *     <li>{@code campuspaths.threads.queue} is the most requests a bounded pool holds waiting
+ *     for a thread (default 1000); Jetty rejects requests beyond that.</li>
+ * </ul>
+ * For example, {@code -Dcampuspaths.threads=bounded -Dcampuspaths.threads.max=64}.
+ * <p>
+ * The server is built for Java 11, where there are no virtual threads. They are looked up when
+ * the pool is made, so {@code virtual} uses them on a Java runtime that has them (21 or later) and
+ * falls back to a bounded pool, sized by the properties above, on one that does not.
+ */
+public class ServerThreads {
+
+    /**
+     * How long an idle thread of a bounded pool lives, in milliseconds.
+     */
+    private static final int IDLE_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * The thread pool settings read from the properties.
+     */
+    public static class Settings {
+        /**
+         * The pool to use: {@code default}, {@code virtual} or {@code bounded}.
+         */
+        public final String mode;
+
+        /**
+         * The most threads a bounded pool runs at once.
+         */
+        public final int maxThreads;
+
+        /**
+         * The fewest threads a bounded pool keeps alive, which is at most maxThreads.
+         */
+        public final int minThreads;
+
+        /**
+         * The most requests a bounded pool holds waiting for a thread.
+         */
+        public final int queueCapacity;
+
+        private Settings(String mode, int maxThreads, int minThreads, int queueCapacity) {
+            this.mode = mode;
+            this.maxThreads = maxThreads;
+            this.minThreads = minThreads;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Installs the thread pool chosen by the system properties into Spark. This must be called
+     * before the first route or filter is added, since that starts the server.
+     *
+     * @throws IllegalArgumentException if a property has a value that is not allowed
+     */
+    public static void configure() {
+        Settings settings = settings(System.getProperties());
+        ThreadPool pool = createPool(settings);
+        if (pool == null) {
+            return;
+        }
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, new EmbeddedJettyFactory().withThreadPool(pool));
+        Logger logger = LoggerFactory.getLogger("CampusPaths Server");
+        if (settings.mode.equals("virtual") && !(pool instanceof VirtualThreadPool)) {
+            logger.info("Virtual threads need Java 21 or later; handling requests with a bounded thread pool");
+        } else {
+            logger.info("Handling requests with a " + settings.mode + " thread pool");
+        }
+    }
+
+    /**
+     * Reads the thread pool settings from the given properties, with the defaults for any that
+     * are not set.
+     *
+     * @param properties the properties to read, such as the system properties
+     * @return the settings the properties give
+     * @throws IllegalArgumentException if a property has a value that is not allowed
+     * @spec.requires properties != null
+     */
+    public static Settings settings(Properties properties) {
+        String mode = properties.getProperty("campuspaths.threads", "default").trim();
+        if (!mode.equals("default") && !mode.equals("virtual") && !mode.equals("bounded")) {
+            throw new IllegalArgumentException("Unknown campuspaths.threads mode: " + mode);
+        }
+        int max = intProperty(properties, "campuspaths.threads.max", 200);
+        int min = Math.min(intProperty(properties, "campuspaths.threads.min", 8), max);
+        int queue = intProperty(properties, "campuspaths.threads.queue", 1000);
+        return new Settings(mode, max, min, queue);
+    }
+
+    /**
+     * Makes the thread pool the given settings choose.
+     *
+     * @param settings the settings to follow
+     * @return a new pool, which is a bounded one if the settings ask for virtual threads but this
+     * Java runtime has none, or null if the settings keep Spark's own pool
+     * @spec.requires settings != null
+     */
+    public static ThreadPool createPool(Settings settings) {
+        switch (settings.mode) {
+            case "default":
+                return null;
+            case "virtual":
+                ExecutorService executor = newVirtualThreadExecutor();
+                if (executor != null) {
+                    return new VirtualThreadPool(executor);
+                }
+                return newBoundedPool(settings);
+            default:
+                return newBoundedPool(settings);
+        }
+    }
+
+    /**
+     * Makes a bounded pool of platform threads.
+     */
+    private static ThreadPool newBoundedPool(Settings settings) {
+        return new QueuedThreadPool(settings.maxThreads, settings.minThreads, IDLE_TIMEOUT_MILLIS,
+                new BlockingArrayQueue<>(settings.queueCapacity));
+    }
+
+    /**
+     * Makes an executor that runs every task on a new virtual thread, found by reflection since
+     * the server is compiled for a Java version without them.
+     *
+     * @return the executor, or null if this Java runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Thread.ofVirtual().name("campuspaths-", 0).factory(), called through the public
+            // Thread.Builder interface rather than the runtime's own builder class
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "campuspaths-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            // no virtual threads, or (on Java 19 and 20) they are a preview that is not enabled
+            return null;
+        }
+    }
+
+    /**
+     * Reads a positive integer property.
+     *
+     * @throws IllegalArgumentException if the property is set but is not a positive integer
+     */
+    private static int intProperty(Properties properties, String name, int defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be a positive integer, not " + value);
+    }
+
+    /**
+     * A Jetty thread pool that runs every task on a new virtual thread. Virtual threads are cheap
+     * to create and park, so there is no pool to size and a burst of requests never waits for a
+     * thread to free up.
+     */
+    private static class VirtualThreadPool implements ThreadPool {
+
+        private final ExecutorService executor;
+
+        private VirtualThreadPool(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            executor.execute(task);
+        }
+
+        @Override
+        public void join() throws InterruptedException {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int getThreads() {
+            // virtual threads are not counted
+            return 0;
+        }
+
+        @Override
+        public int getIdleThreads() {
+            return 0;
+        }
+
+        @Override
+        public boolean isLowOnThreads() {
+            return false;
+        }
+    }
+}
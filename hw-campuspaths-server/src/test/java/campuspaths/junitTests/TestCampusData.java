@@ -0,0 +1,123 @@
+package campuspaths.junitTests;
+
+import campuspaths.utils.CampusData;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestCampusData {
+
+    private static final long SETTLE_MILLIS = 300;
+
+    // Three buildings along one line of campus paths
+    private static final List<String> BUILDINGS = List.of(
+            "A,Building A,0.0,0.0",
+            "B,Building B,1.0,0.0",
+            "C,Building C,2.0,0.0");
+    private static final List<String> PATHS = List.of(
+            "0.0,0.0,1.0,0.0,1.0",
+            "1.0,0.0,2.0,0.0,1.0");
+
+    /**
+     * Makes a data directory holding the first few buildings and every path.
+     */
+    private static Path dataDirectory(int buildings) throws IOException {
+        Path dir = Files.createTempDirectory("campus");
+        dir.toFile().deleteOnExit();
+        write(dir.resolve("campus_buildings.csv"), BUILDINGS.subList(0, buildings));
+        write(dir.resolve("campus_paths.csv"), PATHS);
+        dir.resolve("campus_buildings.csv").toFile().deleteOnExit();
+        dir.resolve("campus_paths.csv").toFile().deleteOnExit();
+        return dir;
+    }
+
+    private static void write(Path file, List<String> lines, StandardOpenOption... options) throws IOException {
+        Files.write(file, lines, StandardCharsets.UTF_8, options);
+    }
+
+    /**
+     * Waits until the data holds the given number of buildings, or fails after a few seconds.
+     */
+    private static void awaitBuildings(CampusData data, int buildings) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (data.current().map.buildingNames().size() != buildings) {
+            assertTrue("the data was not reloaded", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testHalfWrittenFileIsNotSwappedIn() throws Exception {
+        Path dir = dataDirectory(1);
+        CampusData data = new CampusData(dir);
+        data.watch(SETTLE_MILLIS);
+
+        // record the size of every snapshot that is ever current
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (sampling.get()) {
+                seen.add(data.current().map.buildingNames().size());
+            }
+        });
+        sampler.start();
+
+        // write the file in place in two parts, the first ending cleanly after B
+        Path buildings = dir.resolve("campus_buildings.csv");
+        write(buildings, BUILDINGS.subList(0, 2), StandardOpenOption.TRUNCATE_EXISTING);
+        Thread.sleep(SETTLE_MILLIS / 3);
+        write(buildings, BUILDINGS.subList(2, 3), StandardOpenOption.APPEND);
+
+        awaitBuildings(data, 3);
+        sampling.set(false);
+        sampler.join();
+        assertFalse("the half-written file was swapped in", seen.contains(2));
+        assertEquals("Building C", data.current().map.longNameForShort("C"));
+    }
+
+    @Test
+    public void testAtomicReplacementIsReloaded() throws Exception {
+        Path dir = dataDirectory(1);
+        CampusData data = new CampusData(dir);
+        CampusData.Snapshot before = data.current();
+        data.watch(SETTLE_MILLIS);
+
+        Path staged = dir.resolve("campus_buildings.csv.new");
+        write(staged, BUILDINGS);
+        Files.move(staged, dir.resolve("campus_buildings.csv"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        awaitBuildings(data, 3);
+        // the old snapshot is untouched, for requests still using it
+        assertEquals(1, before.map.buildingNames().size());
+    }
+
+    @Test
+    public void testFailedReloadKeepsCurrentData() throws Exception {
+        Path dir = dataDirectory(3);
+        CampusData data = new CampusData(dir);
+        CampusData.Snapshot before = data.current();
+
+        write(dir.resolve("campus_paths.csv"), List.of("not,a,path"));
+        assertTrue(data.reload().handle((snapshot, e) -> e != null).get());
+        assertEquals(before, data.current());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSettleTime() throws IOException {
+        new CampusData(dataDirectory(1)).watch(-1);
+    }
+}
@@ -0,0 +1,95 @@
+package campuspaths.junitTests;
+
+import campuspaths.utils.ServerThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestServerThreads {
+
+    private static Properties properties(String... namesAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            properties.setProperty(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return properties;
+    }
+
+    @Test
+    public void testDefaults() {
+        ServerThreads.Settings settings = ServerThreads.settings(properties());
+        assertEquals("default", settings.mode);
+        assertEquals(200, settings.maxThreads);
+        assertEquals(8, settings.minThreads);
+        assertEquals(1000, settings.queueCapacity);
+        assertNull(ServerThreads.createPool(settings));
+    }
+
+    @Test
+    public void testBoundedPool() {
+        ServerThreads.Settings settings = ServerThreads.settings(properties(
+                "campuspaths.threads", "bounded",
+                "campuspaths.threads.max", "64",
+                "campuspaths.threads.min", " 4 ",
+                "campuspaths.threads.queue", "10"));
+        assertEquals("bounded", settings.mode);
+        assertEquals(64, settings.maxThreads);
+        assertEquals(4, settings.minThreads);
+        assertEquals(10, settings.queueCapacity);
+
+        ThreadPool pool = ServerThreads.createPool(settings);
+        assertTrue(pool instanceof QueuedThreadPool);
+        assertEquals(64, ((QueuedThreadPool) pool).getMaxThreads());
+        assertEquals(4, ((QueuedThreadPool) pool).getMinThreads());
+    }
+
+    @Test
+    public void testMinThreadsIsAtMostMax() {
+        ServerThreads.Settings settings = ServerThreads.settings(properties(
+                "campuspaths.threads", "bounded",
+                "campuspaths.threads.max", "2"));
+        assertEquals(2, settings.maxThreads);
+        assertEquals(2, settings.minThreads);
+    }
+
+    @Test
+    public void testVirtualPool() {
+        ServerThreads.Settings settings = ServerThreads.settings(properties(
+                "campuspaths.threads", "virtual",
+                "campuspaths.threads.max", "16"));
+        ThreadPool pool = ServerThreads.createPool(settings);
+        assertNotNull(pool);
+        if (Runtime.version().feature() < 21) {
+            // no virtual threads on this runtime, so the bounded pool stands in for them
+            assertTrue(pool instanceof QueuedThreadPool);
+            assertEquals(16, ((QueuedThreadPool) pool).getMaxThreads());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMode() {
+        ServerThreads.settings(properties("campuspaths.threads", "pooled"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonNumericSize() {
+        ServerThreads.settings(properties("campuspaths.threads.max", "many"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSize() {
+        ServerThreads.settings(properties("campuspaths.threads.queue", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSize() {
+        ServerThreads.settings(properties("campuspaths.threads.min", "-3"));
+    }
+}
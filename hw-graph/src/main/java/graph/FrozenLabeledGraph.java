@@ -0,0 +1,453 @@
+package graph;
+
+import java.util.*;
+
+/**
+ * An immutable, read-optimized snapshot of a directed labeled graph, stored in
+ * compressed sparse row (CSR) form.
+ * <p>
+ * Every node is given an integer id in [0, size()). The outgoing edges of node
+ * {@code id} occupy the index range [edgeStart(id), edgeEnd(id)) of the edge arrays,
+ * sorted by child id, so traversals can scan neighbours without touching any
+ * per-edge objects. When every label is a {@link Number}, the labels are also kept
+ * as primitive weights.
+ * <p>
+ * Instances are produced by {@link LabeledGraph#freeze()} or
+ * {@link #fromAdjacency(Map)}. Unlike a LabeledGraph,
+ * every endpoint of an edge is a node of the frozen graph.
+ */
+public final class FrozenLabeledGraph<T, E> {
+    // Representation Invariant:
+    // nodes, ids, offsets, targets, labels != null
+    // offsets.length == nodes.length + 1, offsets[0] == 0 and offsets is non-decreasing
+    // offsets[nodes.length] == targets.length == labels.length
+    // every target is in [0, nodes.length), and targets are sorted within each row
+    // ids.get(nodes[i]) == i for every i, and ids.size() == nodes.length
+    // no node and no label is null
+    // weights == null || weights[i] == ((Number) labels[i]).doubleValue() for every i
+
+    // Abstraction Function:
+    // AF(this) = directed labeled graph such that
+    //     the nodes are nodes[0], ..., nodes[nodes.length - 1]
+    //     for every id and every i in [offsets[id], offsets[id + 1]), there is an edge
+    //     from nodes[id] to nodes[targets[i]] labeled labels[i]
+
+    private final Object[] nodes;
+    private final Map<T, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final Object[] labels;
+    private final double[] weights;
+
+    /**
+     * Create a new FrozenLabeledGraph from its CSR arrays.
+     *
+     * @param nodes   the data of every node, indexed by id
+     * @param ids     the id of every node's data
+     * @param offsets the start of every node's row in the edge arrays, plus the total edge count
+     * @param targets the child id of every edge
+     * @param labels  the label of every edge
+     * @spec.requires the arguments satisfy the representation invariant and are not shared
+     */
+    FrozenLabeledGraph(Object[] nodes, Map<T, Integer> ids, int[] offsets, int[] targets, Object[] labels) {
+        this.nodes = nodes;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labels = labels;
+        this.weights = toWeights(labels);
+        checkRep();
+    }
+
+    /**
+     * Create a new FrozenLabeledGraph from an adjacency map, in which each node maps each of
+     * its children to the label of the edge pointing to it.
+     *
+     * @param adjacency the children of every parent node, with the label of each edge
+     * @param <T>       the type of the node data
+     * @param <E>       the type of the edge labels
+     * @return a FrozenLabeledGraph with one edge for every child entry in adjacency
+     * @spec.requires adjacency contains no null nodes or labels
+     */
+    public static <T, E> FrozenLabeledGraph<T, E> fromAdjacency(Map<T, ? extends Map<T, ? extends E>> adjacency) {
+        Map<T, Integer> ids = new HashMap<>();
+        List<T> nodes = new ArrayList<>();
+        for (T node : adjacency.keySet()) {
+            ids.put(node, nodes.size());
+            nodes.add(node);
+        }
+        int edgeCount = 0;
+        for (Map<T, ? extends E> children : adjacency.values()) {
+            for (T child : children.keySet()) {
+                if (!ids.containsKey(child)) {
+                    ids.put(child, nodes.size());
+                    nodes.add(child);
+                }
+            }
+            edgeCount += children.size();
+        }
+
+        int[] offsets = new int[nodes.size() + 1];
+        int[] targets = new int[edgeCount];
+        Object[] labels = new Object[edgeCount];
+        int next = 0;
+        for (int id = 0; id < nodes.size(); id++) {
+            offsets[id] = next;
+            Map<T, ? extends E> children = adjacency.get(nodes.get(id));
+            if (children == null) {
+                continue;
+            }
+            for (Map.Entry<T, ? extends E> entry : children.entrySet()) {
+                targets[next] = ids.get(entry.getKey());
+                labels[next] = entry.getValue();
+                next++;
+            }
+            sortRow(targets, labels, offsets[id], next);
+        }
+        offsets[nodes.size()] = next;
+        return new FrozenLabeledGraph<>(nodes.toArray(), ids, offsets, targets, labels);
+    }
+
+    // Rows up to this long are insertion sorted in place; longer ones are sorted as packed keys
+    private static final int INSERTION_SORT_LIMIT = 16;
+
+    /**
+     * Sort one row of the edge arrays by child id, keeping each label with its child and edges
+     * to the same child in their original order, in O(d log d) time for a row of d edges
+     *
+     * @param targets the child id of every edge
+     * @param labels  the label of every edge
+     * @param from    the index where the row begins
+     * @param to      the index just past the end of the row
+     * @spec.requires every child id in the row is non-negative
+     * @spec.modifies targets, labels
+     */
+    static void sortRow(int[] targets, Object[] labels, int from, int to) {
+        int length = to - from;
+        if (length <= INSERTION_SORT_LIMIT) {
+            for (int i = from + 1; i < to; i++) {
+                int target = targets[i];
+                Object label = labels[i];
+                int j = i - 1;
+                while (j >= from && targets[j] > target) {
+                    targets[j + 1] = targets[j];
+                    labels[j + 1] = labels[j];
+                    j--;
+                }
+                targets[j + 1] = target;
+                labels[j + 1] = label;
+            }
+            return;
+        }
+        // each key is a child id in the high half and the edge's place in the row in the low
+        // half, so a primitive sort of the keys orders by child and keeps ties in row order
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = ((long) targets[from + i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        Object[] row = Arrays.copyOfRange(labels, from, to);
+        for (int i = 0; i < length; i++) {
+            targets[from + i] = (int) (keys[i] >>> 32);
+            labels[from + i] = row[(int) keys[i]];
+        }
+    }
+
+    /**
+     * Return the numeric value of every label, or null if some label is not a number
+     *
+     * @param labels the labels of every edge
+     * @return the primitive weights of the labels, or null if they are not all numbers
+     */
+    private static double[] toWeights(Object[] labels) {
+        double[] weights = new double[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            if (!(labels[i] instanceof Number)) {
+                return null;
+            }
+            weights[i] = ((Number) labels[i]).doubleValue();
+        }
+        return weights;
+    }
+
+    /**
+     * Return the number of nodes in the graph
+     *
+     * @return number of nodes
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Return the number of edges in the graph
+     *
+     * @return number of edges
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Return true if the graph is empty
+     *
+     * @return true if graph has no nodes
+     */
+    public boolean isEmpty() {
+        return nodes.length == 0;
+    }
+
+    /**
+     * Return true if every label is a number, so that edge weights are available
+     *
+     * @return true if every label is a {@link Number}
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    /**
+     * Return true if node is in the graph
+     *
+     * @param node the data of a node
+     * @return true if node is in this
+     * @spec.requires node cannot be null
+     */
+    public boolean hasNode(T node) {
+        return ids.containsKey(node);
+    }
+
+    /**
+     * Return the id of the given node
+     *
+     * @param node the data of a node
+     * @return the id of node, or -1 if node is not in this
+     * @spec.requires node cannot be null
+     */
+    public int nodeId(T node) {
+        Integer id = ids.get(node);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Return the data of the node with the given id
+     *
+     * @param id the id of a node
+     * @return the data of the node
+     * @spec.requires 0 &lt;= id &lt; size()
+     */
+    @SuppressWarnings("unchecked")
+    public T getNode(int id) {
+        return (T) nodes[id];
+    }
+
+    /**
+     * Return all the nodes of the graph
+     *
+     * @return the data of every node of this
+     */
+    public HashSet<T> getNodes() {
+        HashSet<T> result = new HashSet<>();
+        for (int id = 0; id < nodes.length; id++) {
+            result.add(getNode(id));
+        }
+        return result;
+    }
+
+    /**
+     * Return all the child nodes of a given parent node
+     *
+     * @param parent the data of a node
+     * @return the data of every child of parent
+     * @spec.requires parent is in this
+     */
+    public HashSet<T> getChildNode(T parent) {
+        int id = ids.get(parent);
+        HashSet<T> children = new HashSet<>();
+        for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+            children.add(getNode(targets[e]));
+        }
+        return children;
+    }
+
+    /**
+     * Return true if edge is in the graph
+     *
+     * @param parent the data of the parent node
+     * @param child  the data of the child node
+     * @param label  the label of the edge
+     * @return true if edge is in this
+     * @spec.requires parent, child, and label cannot be null
+     */
+    public boolean hasEdge(T parent, T child, E label) {
+        int from = nodeId(parent);
+        int to = nodeId(child);
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        for (int e = findEdge(from, to); e >= 0 && e < offsets[from + 1] && targets[e] == to; e++) {
+            if (labels[e].equals(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the smallest weight among the edges from parent to child
+     *
+     * @param parent the data of the parent node
+     * @param child  the data of the child node
+     * @return the smallest weight of an edge from parent to child, or
+     * {@link Double#POSITIVE_INFINITY} if there is none
+     * @throws IllegalStateException if the labels of this are not numbers
+     * @spec.requires parent, child cannot be null
+     */
+    public double getEdgeWeight(T parent, T child) {
+        if (weights == null) {
+            throw new IllegalStateException("The labels of this graph are not numbers.");
+        }
+        int from = nodeId(parent);
+        int to = nodeId(child);
+        double weight = Double.POSITIVE_INFINITY;
+        if (from < 0 || to < 0) {
+            return weight;
+        }
+        for (int e = findEdge(from, to); e >= 0 && e < offsets[from + 1] && targets[e] == to; e++) {
+            weight = Math.min(weight, weights[e]);
+        }
+        return weight;
+    }
+
+    /**
+     * Return the index of the first edge in the row of parent whose child is {@code to}
+     *
+     * @param from the id of the parent node
+     * @param to   the id of the child node
+     * @return index of the first such edge, or -1 if there is none
+     */
+    private int findEdge(int from, int to) {
+        int low = offsets[from];
+        int high = offsets[from + 1] - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (targets[mid] < to) {
+                low = mid + 1;
+            } else {
+                if (targets[mid] == to) {
+                    found = mid;
+                }
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Return the index of the first outgoing edge of a node
+     *
+     * @param id the id of a node
+     * @return index into the edge arrays where the row of id begins
+     * @spec.requires 0 &lt;= id &lt; size()
+     */
+    public int edgeStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Return the index just past the last outgoing edge of a node
+     *
+     * @param id the id of a node
+     * @return index into the edge arrays where the row of id ends
+     * @spec.requires 0 &lt;= id &lt; size()
+     */
+    public int edgeEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Return the parent of an edge
+     *
+     * @param edge the index of an edge
+     * @return the id of the node the edge starts from
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     */
+    public int edgeSource(int edge) {
+        // the last row that begins at or before edge; empty rows begin where the next one does
+        int low = 0;
+        int high = nodes.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= edge) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Return the child of an edge
+     *
+     * @param edge the index of an edge
+     * @return the id of the node the edge points to
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     */
+    public int edgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Return the label of an edge
+     *
+     * @param edge the index of an edge
+     * @return the label of the edge
+     * @spec.requires 0 &lt;= edge &lt; edgeCount()
+     */
+    @SuppressWarnings("unchecked")
+    public E edgeLabel(int edge) {
+        return (E) labels[edge];
+    }
+
+    /**
+     * Return the weight of an edge
+     *
+     * @param edge the index of an edge
+     * @return the numeric value of the label of the edge
+     * @spec.requires isWeighted() and 0 &lt;= edge &lt; edgeCount()
+     */
+    public double edgeWeight(int edge) {
+        return weights[edge];
+    }
+
+    private void checkRep() {
+        if (nodes == null || ids == null || offsets == null || targets == null || labels == null) {
+            throw new RuntimeException("The graph arrays should not be null.");
+        }
+        if (offsets.length != nodes.length + 1 || offsets[0] != 0
+                || offsets[nodes.length] != targets.length || targets.length != labels.length) {
+            throw new RuntimeException("The graph rows do not cover the edge arrays.");
+        }
+        if (ids.size() != nodes.length) {
+            throw new RuntimeException("Every node should have exactly one id.");
+        }
+        for (int id = 0; id < nodes.length; id++) {
+            if (nodes[id] == null) {
+                throw new RuntimeException("Node should not be null.");
+            }
+            if (offsets[id] > offsets[id + 1]) {
+                throw new RuntimeException("Rows should not overlap.");
+            }
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                if (targets[e] < 0 || targets[e] >= nodes.length || labels[e] == null) {
+                    throw new RuntimeException("Edge cannot be null.");
+                }
+                if (e > offsets[id] && targets[e - 1] > targets[e]) {
+                    throw new RuntimeException("Rows should be sorted by child.");
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package graph;
 
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * A class that implements a directed labeled graph.
@@ -17,6 +19,11 @@ public class LabeledGraph<T, E> {
     // graph != null
     // all the node in graph should not be null
     // the edge of a given node should not be null.
+    // every Link in graph has at least one label, no null label and no label twice, and its
+    // weight is the least of its labels as numbers (NaN if some label is not a Number)
+    // incoming != null
+    // incoming.get(child).get(parent) is the very Link of graph.get(parent).get(child), for every
+    // parent and child in graph, and incoming has no other entries.
 
     // Abstraction Function:
     // AF(this) = directed labeled graph such that it satisfies
@@ -28,7 +35,9 @@ public class LabeledGraph<T, E> {
     // }
     // where "A" is a parent node,
     // {"L11", "L12", ...} and {"L21", "L22", ...} are sets containing the labels of the outgoing edges from "A" to "B"
-    // and "A" to "C", respectively.
+    // and "A" to "C", respectively, each held in a Link keyed by the child.
+    // incoming is an index of the same Links by child, so that the parents of a node can be
+    // found without looking at every node.
 
 
     public class Nodes {
@@ -134,19 +143,161 @@ public class LabeledGraph<T, E> {
     }
 
     /**
-     * Create a new LabeledGraph object, an empty graph
-     *
-     * @spec.effects create an empty map
+     * How thoroughly a graph checks its representation invariant as it is changed.
      */
+    public enum Validation {
+        /** Check the whole graph before and after every change, in time proportional to its size. */
+        FULL,
+        /** Check only the nodes and edges a change touches, in time proportional to their degree. */
+        INCREMENTAL,
+        /** Never check. */
+        NONE
+    }
 
+    /**
+     * The system property giving the Validation of graphs created without one, as the name of a
+     * Validation constant. Graphs are checked FULL if it is not set.
+     */
+    public static final String VALIDATION_PROPERTY = "graph.validation";
 
-    private final Map<Nodes, HashSet<Edges>> graph;
+    /**
+     * All the edges from one parent to one child: their labels, and the least of their weights
+     * kept as a primitive, so that weight lookups neither scan nor unbox.
+     */
+    private static final class Link<E> {
+        // almost always a single label, so a list is smaller than a set and as fast
+        private final ArrayList<E> labels = new ArrayList<>(1);
+        private double weight = Double.POSITIVE_INFINITY;
 
+        /**
+         * Add a label, if it is not here yet
+         *
+         * @return true if the label was added
+         */
+        boolean add(E label) {
+            if (labels.contains(label)) {
+                return false;
+            }
+            labels.add(label);
+            weight = Math.min(weight, weightOf(label));
+            return true;
+        }
+
+        /**
+         * Remove a label, if it is here
+         *
+         * @return true if the label was removed
+         */
+        boolean remove(E label) {
+            if (!labels.remove(label)) {
+                return false;
+            }
+            weight = leastWeight();
+            return true;
+        }
+
+        /**
+         * Return the least of the labels as numbers, or NaN if some label is not a Number
+         */
+        double leastWeight() {
+            double least = Double.POSITIVE_INFINITY;
+            for (E label : labels) {
+                least = Math.min(least, weightOf(label));
+            }
+            return least;
+        }
+
+        private static double weightOf(Object label) {
+            return label instanceof Number ? ((Number) label).doubleValue() : Double.NaN;
+        }
+    }
+
+    // parent => (child => the edges from parent to child), with the children of each parent
+    // kept in the order their first edge was added
+    private final Map<Nodes, HashMap<Nodes, Link<E>>> graph;
+
+    // child => (parent => the edges from parent to child), sharing the Links of graph
+    private final Map<Nodes, HashMap<Nodes, Link<E>>> incoming;
+
+    private final Validation validation;
+
+    /**
+     * Create a new LabeledGraph object, an empty graph, checked as the
+     * {@value #VALIDATION_PROPERTY} system property says
+     *
+     * @throws IllegalArgumentException if the property is set to something other than the name
+     *                                  of a Validation constant
+     * @spec.effects create an empty map
+     */
     public LabeledGraph() {
-        graph = new HashMap<>();
+        this(defaultValidation());
+    }
+
+    /**
+     * Create a new LabeledGraph object, an empty graph, checked as thoroughly as given
+     *
+     * @param validation how thoroughly the graph checks itself as it is changed
+     * @spec.requires validation != null
+     * @spec.effects create an empty map
+     */
+    public LabeledGraph(Validation validation) {
+        this(validation, 0);
+    }
+
+    /**
+     * Create a new LabeledGraph object, an empty graph with room for the given number of nodes
+     *
+     * @param validation    how thoroughly the graph checks itself as it is changed
+     * @param expectedNodes the number of nodes the graph will hold
+     * @spec.requires validation != null and expectedNodes &gt;= 0
+     * @spec.effects create an empty map
+     */
+    private LabeledGraph(Validation validation, int expectedNodes) {
+        graph = new HashMap<>(capacityFor(expectedNodes));
+        incoming = new HashMap<>(capacityFor(expectedNodes));
+        this.validation = validation;
         checkRep();
     }
 
+    /**
+     * Return the initial capacity a HashMap or HashSet needs to hold the given number of entries
+     * without resizing
+     *
+     * @param size the number of entries
+     * @return the initial capacity for size entries
+     */
+    private static int capacityFor(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
+    }
+
+    /**
+     * Return the Validation given by the {@value #VALIDATION_PROPERTY} system property
+     *
+     * @return the Validation named by the property, or FULL if it is not set
+     * @throws IllegalArgumentException if the property is set to something other than the name
+     *                                  of a Validation constant
+     */
+    public static Validation defaultValidation() {
+        String value = System.getProperty(VALIDATION_PROPERTY);
+        if (value == null) {
+            return Validation.FULL;
+        }
+        try {
+            return Validation.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(VALIDATION_PROPERTY + " must be FULL, INCREMENTAL or NONE, not " + value);
+        }
+    }
+
+    /**
+     * Return how thoroughly this checks itself as it is changed
+     *
+     * @return the Validation of this
+     */
+    public Validation getValidation() {
+        return validation;
+    }
+
     /**
      * Return all the Nodes of the graph
      *
@@ -169,14 +320,113 @@ public class LabeledGraph<T, E> {
      * @spec.requires node should not be null
      */
     public HashSet<Nodes> getChildNode(Nodes parent) {
-        HashSet<Edges> childLabel = graph.get(parent);
-        HashSet<Nodes> childNode = new HashSet<Nodes>();
-        int i = 0;
-        for (Edges n : childLabel) {
-            childNode.add(n.getChild());
-            i++;
+        return new HashSet<>(graph.get(parent).keySet());
+    }
+
+    /**
+     * Return all the parent Nodes of a given child node, which are the nodes with an edge to it
+     *
+     * @param child a Nodes object
+     * @return all the Nodes with an edge pointing to child
+     * @spec.requires child should not be null
+     */
+    public HashSet<Nodes> getParentNodes(Nodes child) {
+        assert child != null;
+
+        HashMap<Nodes, Link<E>> parents = incoming.get(child);
+        if (parents == null) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(parents.keySet());
+    }
+
+    /**
+     * Return a read-only view of the child Nodes of a given parent node. Unlike getChildNode,
+     * this copies nothing: the view is backed by this graph, so it shows later changes, and it
+     * must not be iterated while this graph is being changed.
+     *
+     * @param parent a Nodes object
+     * @return an unmodifiable view of the Nodes parent has an edge to, empty if it has none
+     * @spec.requires parent should not be null
+     */
+    public Set<Nodes> viewChildNodes(Nodes parent) {
+        assert parent != null;
+
+        return new NeighborView(graph, parent);
+    }
+
+    /**
+     * Return a read-only view of the parent Nodes of a given child node. Unlike getParentNodes,
+     * this copies nothing: the view is backed by this graph, so it shows later changes, and it
+     * must not be iterated while this graph is being changed.
+     *
+     * @param child a Nodes object
+     * @return an unmodifiable view of the Nodes with an edge to child, empty if there are none
+     * @spec.requires child should not be null
+     */
+    public Set<Nodes> viewParentNodes(Nodes child) {
+        assert child != null;
+
+        return new NeighborView(incoming, child);
+    }
+
+    /**
+     * A read-only view of the neighbors of one node in graph or in incoming, looked up on every
+     * use so that it stays current even when the node's entry is removed and added again
+     */
+    private final class NeighborView extends AbstractSet<Nodes> {
+        private final Map<Nodes, HashMap<Nodes, Link<E>>> index;
+        private final Nodes node;
+
+        NeighborView(Map<Nodes, HashMap<Nodes, Link<E>>> index, Nodes node) {
+            this.index = index;
+            this.node = node;
+        }
+
+        private Set<Nodes> neighbors() {
+            HashMap<Nodes, Link<E>> neighbors = index.get(node);
+            return neighbors == null ? Collections.emptySet() : neighbors.keySet();
+        }
+
+        @Override
+        public Iterator<Nodes> iterator() {
+            return Collections.unmodifiableSet(neighbors()).iterator();
+        }
+
+        @Override
+        public int size() {
+            return neighbors().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return neighbors().contains(o);
+        }
+    }
+
+    /**
+     * Perform an action on every edge from a given parent node, in place: no Edges objects and
+     * no collections are made. The edges to each child are visited together, with the children
+     * in the order their first edge from parent was added.
+     *
+     * @param parent a Nodes object
+     * @param action the action to perform on the child and label of each edge from parent,
+     *               which must not change this graph
+     * @spec.requires parent and action should not be null
+     */
+    public void forEachEdge(Nodes parent, BiConsumer<? super Nodes, ? super E> action) {
+        assert parent != null;
+
+        HashMap<Nodes, Link<E>> children = graph.get(parent);
+        if (children == null) {
+            return;
+        }
+        for (Map.Entry<Nodes, Link<E>> entry : children.entrySet()) {
+            ArrayList<E> labels = entry.getValue().labels;
+            for (int i = 0; i < labels.size(); i++) {
+                action.accept(entry.getKey(), labels.get(i));
+            }
         }
-        return childNode;
     }
 
     /**
@@ -189,12 +439,13 @@ public class LabeledGraph<T, E> {
     public HashSet<Edges> getEdges(Nodes parent) {
         assert parent != null;
 
-        HashSet<Edges> childLabel = graph.get(parent);
+        HashMap<Nodes, Link<E>> children = graph.get(parent);
 
         HashSet<Edges> edges = new HashSet<>();
-        for (Edges edge : childLabel) {
-            edges.add(edge);
-
+        for (Map.Entry<Nodes, Link<E>> entry : children.entrySet()) {
+            for (E label : entry.getValue().labels) {
+                edges.add(new Edges(entry.getKey(), label));
+            }
         }
         return edges;
     }
@@ -211,7 +462,7 @@ public class LabeledGraph<T, E> {
      */
     public boolean addNode(Nodes newNode) {
         assert newNode != null;
-        checkRep();
+        checkRep(newNode);
         boolean success = false;
 
         if (hasNode(newNode)) {
@@ -219,32 +470,46 @@ public class LabeledGraph<T, E> {
         }
 
         if (!hasNode(newNode)) {
-            graph.put(newNode, new HashSet<Edges>());
+            graph.put(newNode, new LinkedHashMap<>());
             success = true;
         }
-        checkRep();
+        checkRep(newNode);
         return success;
     }
 
     /**
-     * remove a given node to the graph
+     * remove a given node to the graph, along with every edge from it and every edge to it.
+     * This takes time proportional to the number of nodes it shares an edge with, not to the
+     * size of the graph.
      *
      * @param node a Nodes object
      * @return true if removeNode successfully
      * @spec.requires node should not be null
      * @spec.modifies this
-     * @spec.effects this is updated with deleting a node
+     * @spec.effects this is updated with deleting a node and the edges to and from it
      */
     public boolean removeNode(Nodes node) {
         assert node != null;
-        checkRep();
+        checkRep(node);
 
-        graph.remove(node);
-        // remove it as a child node
-        for (Nodes parent : graph.keySet()) {
-            graph.get(parent).remove(node);
+        // remove it as a parent node
+        HashMap<Nodes, Link<E>> children = graph.remove(node);
+        if (children != null) {
+            for (Nodes child : children.keySet()) {
+                unlinkIncoming(node, child);
+            }
         }
-        checkRep();
+        // remove it as a child node, visiting only the nodes with an edge to it
+        HashMap<Nodes, Link<E>> parents = incoming.remove(node);
+        if (parents != null) {
+            for (Nodes parent : parents.keySet()) {
+                HashMap<Nodes, Link<E>> siblings = graph.get(parent);
+                if (siblings != null) {
+                    siblings.remove(node);
+                }
+            }
+        }
+        checkRep(node);
         return true;
 
     }
@@ -264,26 +529,22 @@ public class LabeledGraph<T, E> {
         assert parent != null;
         assert label != null;
         assert child != null;
-        checkRep();
+        checkRep(parent, child);
 
         if (hasEdge(parent, child, label)) {
             return false;
         }
 
-        boolean success = false;
-
-        if (graph.containsKey(parent)) {
-            HashSet<Edges> childLabel = graph.get(parent);
-            Edges newEdge = new Edges(child, label);
-            success = childLabel.add(newEdge);
-        } else {
-            HashSet<Edges> childLabel = new HashSet<>();
-            Edges newEdge = new Edges(child, label);
-            success = childLabel.add(newEdge);
-            graph.put(parent, childLabel);
+        HashMap<Nodes, Link<E>> children = graph.computeIfAbsent(parent, p -> new LinkedHashMap<>());
+        Link<E> link = children.get(child);
+        if (link == null) {
+            link = new Link<>();
+            children.put(child, link);
+            incoming.computeIfAbsent(child, c -> new HashMap<>()).put(parent, link);
         }
+        boolean success = link.add(label);
 
-        checkRep();
+        checkRep(parent, child);
         return success;
     }
 
@@ -304,37 +565,71 @@ public class LabeledGraph<T, E> {
         assert label != null;
         boolean success = false;
 
-        Edges e = new Edges(child, label);
-        if (graph.containsKey(parent)) {
-            HashSet<Edges> childEdges = graph.get(parent);
-            if (childEdges.contains(e)) {
-                childEdges.remove(e);
-                success = true;
+        HashMap<Nodes, Link<E>> children = graph.get(parent);
+        Link<E> link = children == null ? null : children.get(child);
+        if (link != null && link.remove(label)) {
+            success = true;
+            // forget parent as a parent of child once its last edge to child is gone
+            if (link.labels.isEmpty()) {
+                children.remove(child);
+                unlinkIncoming(parent, child);
             }
         }
-        checkRep();
+        checkRep(parent, child);
         return success;
     }
 
     /**
-     * Return the label of the given parent node and child node
+     * Remove parent from the incoming index of child
+     *
+     * @param parent the node the forgotten edges start from
+     * @param child  the node the forgotten edges point to
+     */
+    private void unlinkIncoming(Nodes parent, Nodes child) {
+        HashMap<Nodes, Link<E>> parents = incoming.get(child);
+        if (parents != null) {
+            parents.remove(parent);
+            if (parents.isEmpty()) {
+                incoming.remove(child);
+            }
+        }
+    }
+
+    /**
+     * Return the weight of the edge from the given parent node to the given child node, in
+     * constant time. If there are several such edges, this is the least of their weights.
      *
      * @param parent a Nodes object
      * @param child a Nodes object
-     * @return label
+     * @return the least label of the edges from parent to child, as a double, or
+     * {@link Double#POSITIVE_INFINITY} if there is no such edge
+     * @throws ClassCastException if a label of an edge from parent to child is not a Number
      * @spec.requires parent, child cannot be null
      */
     public double getEdgeWeight(Nodes parent, Nodes child) {
         assert parent != null;
         assert child != null;
 
-        HashSet<Edges> childEdges = graph.get(parent);
-        for (Edges e : childEdges) {
-            if (e.getChild().equals(child)) {
-                return (double) e.getLabel();
-            }
+        Link<E> link = link(parent, child);
+        if (link == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (Double.isNaN(link.weight)) {
+            throw new ClassCastException("The edges from " + parent + " to " + child + " are not weighted");
         }
-        return Double.POSITIVE_INFINITY;
+        return link.weight;
+    }
+
+    /**
+     * Return the edges from a parent node to a child node
+     *
+     * @param parent a Nodes object
+     * @param child a Nodes object
+     * @return the Link holding the edges from parent to child, or null if there are none
+     */
+    private Link<E> link(Nodes parent, Nodes child) {
+        HashMap<Nodes, Link<E>> children = graph.get(parent);
+        return children == null ? null : children.get(child);
     }
 
 
@@ -350,7 +645,8 @@ public class LabeledGraph<T, E> {
     }
 
     /**
-     * Return true if edge is in the graph
+     * Return true if edge is in the graph, in time proportional to the number of edges from
+     * parent to child (almost always one) rather than the out-degree of parent
      *
      * @param parent a Nodes object
      * @param child  a Nodes object
@@ -362,17 +658,9 @@ public class LabeledGraph<T, E> {
         assert parent != null;
         assert child != null;
         assert label != null;
-        checkRep();
 
-        if (graph.containsKey(parent)) {
-            HashSet<Edges> childEdges = graph.get(parent);
-            for (Edges e : childEdges) {
-                if (e.getChild().equals(child) && e.getLabel().equals(label)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        Link<E> link = link(parent, child);
+        return link != null && link.labels.contains(label);
     }
 
     /**
@@ -393,26 +681,428 @@ public class LabeledGraph<T, E> {
         return graph.size();
     }
 
+    /**
+     * Return an immutable compressed sparse row snapshot of this graph. Later changes
+     * to this graph are not reflected in the snapshot.
+     *
+     * @return a FrozenLabeledGraph with the same nodes and edges as this
+     */
+    public FrozenLabeledGraph<T, E> freeze() {
+        if (validation != Validation.NONE) {
+            checkWholeRep();
+        }
+        Map<T, Integer> ids = new HashMap<>();
+        List<T> nodes = new ArrayList<>();
+        for (Nodes node : graph.keySet()) {
+            ids.put(node.getData(), nodes.size());
+            nodes.add(node.getData());
+        }
+        int edgeCount = 0;
+        for (HashMap<Nodes, Link<E>> children : graph.values()) {
+            for (Map.Entry<Nodes, Link<E>> entry : children.entrySet()) {
+                // children that were never added as nodes still become nodes of the snapshot
+                T child = entry.getKey().getData();
+                if (!ids.containsKey(child)) {
+                    ids.put(child, nodes.size());
+                    nodes.add(child);
+                }
+                edgeCount += entry.getValue().labels.size();
+            }
+        }
+
+        int[] offsets = new int[nodes.size() + 1];
+        int[] targets = new int[edgeCount];
+        Object[] labels = new Object[edgeCount];
+        int next = 0;
+        for (int id = 0; id < nodes.size(); id++) {
+            offsets[id] = next;
+            HashMap<Nodes, Link<E>> children = graph.get(new Nodes(nodes.get(id)));
+            if (children == null) {
+                continue;
+            }
+            for (Map.Entry<Nodes, Link<E>> entry : children.entrySet()) {
+                int target = ids.get(entry.getKey().getData());
+                for (E label : entry.getValue().labels) {
+                    targets[next] = target;
+                    labels[next] = label;
+                    next++;
+                }
+            }
+            FrozenLabeledGraph.sortRow(targets, labels, offsets[id], next);
+        }
+        offsets[nodes.size()] = next;
+        return new FrozenLabeledGraph<>(nodes.toArray(), ids, offsets, targets, labels);
+    }
+
+    /**
+     * Check the whole representation invariant if this is validated FULL
+     */
     private void checkRep() {
+        if (validation == Validation.FULL) {
+            checkWholeRep();
+        }
+    }
+
+    /**
+     * Check the representation invariant around a node that a change touches: the whole of it
+     * if this is validated FULL, or only the entries of node if it is validated INCREMENTAL
+     */
+    private void checkRep(Nodes node) {
+        if (validation == Validation.FULL) {
+            checkWholeRep();
+        } else if (validation == Validation.INCREMENTAL) {
+            checkNodeRep(node);
+        }
+    }
+
+    /**
+     * Check the representation invariant around the two ends of an edge that a change touches
+     */
+    private void checkRep(Nodes parent, Nodes child) {
+        if (validation == Validation.FULL) {
+            checkWholeRep();
+        } else if (validation == Validation.INCREMENTAL) {
+            checkNodeRep(parent);
+            checkNodeRep(child);
+        }
+    }
+
+    /**
+     * Check the entries of one node: its outgoing edges, and that the incoming index holds
+     * exactly the edges into it from each of its parents
+     */
+    private void checkNodeRep(Nodes node) {
+        if (node == null) {
+            throw new RuntimeException("Node should not be null.");
+        }
+        checkOutgoingRep(node);
+        HashMap<Nodes, Link<E>> parents = incoming.get(node);
+        if (parents != null) {
+            if (parents.isEmpty()) {
+                throw new RuntimeException("The incoming index has an empty entry.");
+            }
+            for (Map.Entry<Nodes, Link<E>> entry : parents.entrySet()) {
+                if (link(entry.getKey(), node) != entry.getValue()) {
+                    throw new RuntimeException("The incoming index does not match the edges.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Check the outgoing edges of one node, and that each of them is in the incoming index
+     */
+    private void checkOutgoingRep(Nodes node) {
+        HashMap<Nodes, Link<E>> children = graph.get(node);
+        if (children == null) {
+            return;
+        }
+        for (Map.Entry<Nodes, Link<E>> entry : children.entrySet()) {
+            Link<E> link = entry.getValue();
+            if (entry.getKey() == null || link == null || link.labels.isEmpty()) {
+                throw new RuntimeException("Edge cannot be null.");
+            }
+            if (link.labels.contains(null)
+                    || (link.labels.size() > 1 && new HashSet<>(link.labels).size() != link.labels.size())) {
+                throw new RuntimeException("Edge labels must be distinct and not null.");
+            }
+            if (Double.compare(link.weight, link.leastWeight()) != 0) {
+                throw new RuntimeException("Edge weight does not match its labels.");
+            }
+            HashMap<Nodes, Link<E>> parents = incoming.get(entry.getKey());
+            if (parents == null || parents.get(node) != link) {
+                throw new RuntimeException("Edge is missing from the incoming index.");
+            }
+        }
+    }
+
+    /**
+     * Check the whole representation invariant, in time proportional to the size of the graph
+     */
+    private void checkWholeRep() {
         if (graph == null) {
             throw new RuntimeException("The graph should not be null.");
         }
+        if (incoming == null) {
+            throw new RuntimeException("The incoming index should not be null.");
+        }
 
+        int linkCount = 0;
         for (Nodes node : graph.keySet()) {
             if (node == null) {
                 throw new RuntimeException("Node should not be null.");
             }
-            for (Edges e : graph.get(node)) {
-                if (e == null) {
-                    throw new RuntimeException("Edge cannot be null.");
-                }
-            }
+            checkOutgoingRep(node);
+            linkCount += graph.get(node).size();
+        }
+
+        // every Link of graph is in incoming, so incoming has no others if the counts agree
+        int indexedCount = 0;
+        for (HashMap<Nodes, Link<E>> parents : incoming.values()) {
+            indexedCount += parents.size();
+        }
+        if (indexedCount != linkCount) {
+            throw new RuntimeException("The incoming index does not match the edges.");
         }
 
     }
 
-}
+    /**
+     * A Builder makes a graph from many nodes and edges added at once, much faster than adding
+     * them to a graph one at a time: the nodes and edges are collected in flat arrays, with
+     * nothing checked and no Nodes or Edges objects made, then the graph is put together in one
+     * pass that removes duplicates and sizes every table for what it holds.
+     * <p>
+     * Unlike {@link LabeledGraph#addEdge}, adding an edge also adds both of its ends as nodes.
+     * A Builder can keep being used after it has built a graph; later additions do not change
+     * graphs already built.
+     *
+     * @param <T> the type of the node data
+     * @param <E> the type of the edge labels
+     */
+    public static class Builder<T, E> {
+        // the id of every node added, and the data of every id
+        private final Map<T, Integer> ids;
+        private final List<T> nodes;
 
+        // edge i goes from node sources[i] to node targets[i], labeled labels[i], for i < edgeCount
+        private int[] sources;
+        private int[] targets;
+        private Object[] labels;
+        private int edgeCount;
 
+        // null for the validation given by the system property
+        private Validation validation;
 
+        /**
+         * Create a new Builder with no nodes or edges
+         */
+        public Builder() {
+            this(0, 0);
+        }
 
+        /**
+         * Create a new Builder with no nodes or edges, and room for the given numbers of them
+         *
+         * @param expectedNodes the number of nodes that will be added
+         * @param expectedEdges the number of edges that will be added
+         * @spec.requires expectedNodes, expectedEdges &gt;= 0
+         */
+        public Builder(int expectedNodes, int expectedEdges) {
+            this.ids = new HashMap<>(capacityFor(expectedNodes));
+            this.nodes = new ArrayList<>(expectedNodes);
+            int capacity = Math.max(16, expectedEdges);
+            this.sources = new int[capacity];
+            this.targets = new int[capacity];
+            this.labels = new Object[capacity];
+        }
+
+        /**
+         * Set how thoroughly the graphs built check themselves as they are changed. If it is not
+         * set, they are checked as the {@value LabeledGraph#VALIDATION_PROPERTY} system property
+         * says.
+         *
+         * @param validation how thoroughly the graphs built check themselves
+         * @return this
+         * @spec.requires validation != null
+         */
+        public Builder<T, E> validation(Validation validation) {
+            this.validation = validation;
+            return this;
+        }
+
+        /**
+         * Add a node, if it has not been added yet
+         *
+         * @param node the data of the node
+         * @return this
+         * @spec.requires node != null
+         */
+        public Builder<T, E> addNode(T node) {
+            assert node != null;
+            id(node);
+            return this;
+        }
+
+        /**
+         * Add every node that has not been added yet
+         *
+         * @param nodes the data of the nodes
+         * @return this
+         * @spec.requires nodes != null and contains no null
+         */
+        public Builder<T, E> addNodes(Iterable<? extends T> nodes) {
+            for (T node : nodes) {
+                addNode(node);
+            }
+            return this;
+        }
+
+        /**
+         * Add an edge, and its ends as nodes. Adding the same edge again has no effect on the
+         * graphs built.
+         *
+         * @param parent the node the edge starts from
+         * @param child  the node the edge points to
+         * @param label  the label of the edge
+         * @return this
+         * @spec.requires parent, child, label != null
+         */
+        public Builder<T, E> addEdge(T parent, T child, E label) {
+            assert parent != null;
+            assert child != null;
+            assert label != null;
+            if (edgeCount == sources.length) {
+                int capacity = 2 * edgeCount;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                labels = Arrays.copyOf(labels, capacity);
+            }
+            sources[edgeCount] = id(parent);
+            targets[edgeCount] = id(child);
+            labels[edgeCount] = label;
+            edgeCount++;
+            return this;
+        }
+
+        /**
+         * Add an edge, and its ends as nodes, for every item
+         *
+         * @param items  the items to add an edge for
+         * @param parent gives the node an item's edge starts from
+         * @param child  gives the node an item's edge points to
+         * @param label  gives the label of an item's edge
+         * @param <X>    the type of the items
+         * @return this
+         * @spec.requires no argument is null, and no function returns null
+         */
+        public <X> Builder<T, E> addEdges(Iterable<? extends X> items,
+                                          Function<? super X, ? extends T> parent,
+                                          Function<? super X, ? extends T> child,
+                                          Function<? super X, ? extends E> label) {
+            for (X item : items) {
+                addEdge(parent.apply(item), child.apply(item), label.apply(item));
+            }
+            return this;
+        }
+
+        /**
+         * Build a new LabeledGraph with the nodes and edges added so far
+         *
+         * @return a graph with every node added and one edge for every distinct edge added
+         * @throws IllegalArgumentException if no validation was set and the
+         *                                  {@value LabeledGraph#VALIDATION_PROPERTY} system property is
+         *                                  not the name of a Validation constant
+         */
+        public LabeledGraph<T, E> build() {
+            LabeledGraph<T, E> g = new LabeledGraph<>(
+                    validation == null ? defaultValidation() : validation, nodes.size());
+            int[] outDegree = new int[nodes.size()];
+            for (int i = 0; i < edgeCount; i++) {
+                outDegree[sources[i]]++;
+            }
+            List<LabeledGraph<T, E>.Nodes> wrapped = new ArrayList<>(nodes.size());
+            for (int id = 0; id < nodes.size(); id++) {
+                LabeledGraph<T, E>.Nodes node = g.new Nodes(nodes.get(id));
+                wrapped.add(node);
+                g.graph.put(node, new LinkedHashMap<>(capacityFor(outDegree[id])));
+            }
+            for (int i = 0; i < edgeCount; i++) {
+                LabeledGraph<T, E>.Nodes parent = wrapped.get(sources[i]);
+                LabeledGraph<T, E>.Nodes child = wrapped.get(targets[i]);
+                HashMap<LabeledGraph<T, E>.Nodes, Link<E>> children = g.graph.get(parent);
+                Link<E> link = children.get(child);
+                if (link == null) {
+                    link = new Link<>();
+                    children.put(child, link);
+                    g.incoming.computeIfAbsent(child, c -> new HashMap<>()).put(parent, link);
+                }
+                link.add(label(i));
+            }
+            g.checkRep();
+            return g;
+        }
+
+        /**
+         * Build a new FrozenLabeledGraph with the nodes and edges added so far, without building
+         * a LabeledGraph first. Nodes are given ids in the order they were first added.
+         *
+         * @return a frozen graph with every node added and one edge for every distinct edge added
+         */
+        public FrozenLabeledGraph<T, E> freeze() {
+            int n = nodes.size();
+            // count the edges of every row, then place each edge in its row
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int id = 0; id < n; id++) {
+                offsets[id + 1] += offsets[id];
+            }
+            int[] rowTargets = new int[edgeCount];
+            Object[] rowLabels = new Object[edgeCount];
+            int[] next = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < edgeCount; i++) {
+                int slot = next[sources[i]]++;
+                rowTargets[slot] = targets[i];
+                rowLabels[slot] = labels[i];
+            }
+            // sort each row by child, then drop the edges repeated within it
+            int kept = 0;
+            for (int id = 0; id < n; id++) {
+                int from = offsets[id];
+                int to = offsets[id + 1];
+                FrozenLabeledGraph.sortRow(rowTargets, rowLabels, from, to);
+                offsets[id] = kept;
+                for (int i = from; i < to; i++) {
+                    if (!isRepeat(rowTargets, rowLabels, offsets[id], kept, i)) {
+                        rowTargets[kept] = rowTargets[i];
+                        rowLabels[kept] = rowLabels[i];
+                        kept++;
+                    }
+                }
+            }
+            offsets[n] = kept;
+            if (kept < edgeCount) {
+                rowTargets = Arrays.copyOf(rowTargets, kept);
+                rowLabels = Arrays.copyOf(rowLabels, kept);
+            }
+            return new FrozenLabeledGraph<>(nodes.toArray(), new HashMap<>(ids), offsets, rowTargets, rowLabels);
+        }
+
+        /**
+         * Return true if edge i of a sorted row repeats one of the edges kept from the row so far,
+         * which are at [rowStart, kept)
+         */
+        private static boolean isRepeat(int[] targets, Object[] labels, int rowStart, int kept, int i) {
+            // the kept edges to the same child are the last ones kept, since the row is sorted
+            for (int j = kept - 1; j >= rowStart && targets[j] == targets[i]; j--) {
+                if (labels[j].equals(labels[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Return the id of a node, adding it if it has not been added yet
+         */
+        private int id(T node) {
+            Integer id = ids.putIfAbsent(node, nodes.size());
+            if (id != null) {
+                return id;
+            }
+            nodes.add(node);
+            return nodes.size() - 1;
+        }
+
+        /**
+         * Return the label of edge i
+         */
+        @SuppressWarnings("unchecked")
+        private E label(int i) {
+            return (E) labels[i];
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package graph.junitTests;
+
+import graph.FrozenLabeledGraph;
+import graph.LabeledGraph;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.*;
+
+public class FrozenLabeledGraphTest {
+
+    private LabeledGraph<String, Double> G = new LabeledGraph<>();
+
+    private LabeledGraph<String, Double>.Nodes n1 = G.new Nodes("n1");
+    private LabeledGraph<String, Double>.Nodes n2 = G.new Nodes("n2");
+    private LabeledGraph<String, Double>.Nodes n3 = G.new Nodes("n3");
+
+    /**
+     * Test that an empty graph freezes to an empty graph.
+     */
+    @Test
+    public void testFreezeEmpty() {
+        FrozenLabeledGraph<String, Double> F = G.freeze();
+        assertTrue(F.isEmpty());
+        assertEquals(0, F.edgeCount());
+        assertFalse(F.hasNode("n1"));
+        assertEquals(-1, F.nodeId("n1"));
+    }
+
+    /**
+     * Test that the frozen graph answers the same queries as the original graph.
+     */
+    @Test
+    public void testSameQueries() {
+        G.addNode(n1);
+        G.addNode(n2);
+        G.addNode(n3);
+        G.addEdge(n1, n2, 1.0);
+        G.addEdge(n1, n2, 3.0);
+        G.addEdge(n1, n3, 2.0);
+        G.addEdge(n3, n1, 4.0);
+        FrozenLabeledGraph<String, Double> F = G.freeze();
+
+        assertEquals(3, F.size());
+        assertEquals(4, F.edgeCount());
+        assertEquals(new HashSet<>(Arrays.asList("n1", "n2", "n3")), F.getNodes());
+        assertEquals(new HashSet<>(Arrays.asList("n2", "n3")), F.getChildNode("n1"));
+        assertTrue(F.getChildNode("n2").isEmpty());
+        assertTrue(F.hasEdge("n1", "n2", 3.0));
+        assertFalse(F.hasEdge("n2", "n1", 1.0));
+        assertFalse(F.hasEdge("n1", "n3", 4.0));
+        assertEquals(1.0, F.getEdgeWeight("n1", "n2"), 0);
+        assertEquals(4.0, F.getEdgeWeight("n3", "n1"), 0);
+        assertEquals(Double.POSITIVE_INFINITY, F.getEdgeWeight("n2", "n3"), 0);
+    }
+
+    /**
+     * Test the id-based adjacency scan, and that the snapshot ignores later changes.
+     */
+    @Test
+    public void testAdjacencyArrays() {
+        G.addEdge(n1, n2, 1.0);
+        G.addEdge(n1, n3, 2.0);
+        FrozenLabeledGraph<String, Double> F = G.freeze();
+        G.removeNode(n1);
+
+        // n2 and n3 were only ever added as children, but they are still nodes of the snapshot
+        assertEquals(3, F.size());
+        int id = F.nodeId("n1");
+        assertEquals("n1", F.getNode(id));
+        assertEquals(2, F.edgeEnd(id) - F.edgeStart(id));
+        double total = 0;
+        Set<String> children = new HashSet<>();
+        for (int e = F.edgeStart(id); e < F.edgeEnd(id); e++) {
+            children.add(F.getNode(F.edgeTarget(e)));
+            total += F.edgeWeight(e);
+            assertEquals(F.edgeLabel(e), F.edgeWeight(e), 0);
+        }
+        assertEquals(new HashSet<>(Arrays.asList("n2", "n3")), children);
+        assertEquals(3.0, total, 0);
+    }
+
+    /**
+     * Test that every edge maps back to its parent, including around nodes with no children.
+     */
+    @Test
+    public void testEdgeSource() {
+        G.addNode(n2);
+        G.addEdge(n1, n2, 1.0);
+        G.addEdge(n1, n3, 2.0);
+        G.addEdge(n3, n1, 4.0);
+        FrozenLabeledGraph<String, Double> F = G.freeze();
+
+        for (int v = 0; v < F.size(); v++) {
+            for (int e = F.edgeStart(v); e < F.edgeEnd(v); e++) {
+                assertEquals(v, F.edgeSource(e));
+            }
+        }
+    }
+
+    /**
+     * Test that graphs with non-numeric labels have no weights.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testUnweightedLabels() {
+        LabeledGraph<String, String> S = new LabeledGraph<>();
+        S.addEdge(S.new Nodes("a"), S.new Nodes("b"), "l1");
+        FrozenLabeledGraph<String, String> F = S.freeze();
+        assertFalse(F.isWeighted());
+        assertTrue(F.hasEdge("a", "b", "l1"));
+        F.getEdgeWeight("a", "b");
+    }
+
+    /**
+     * Test that a builder freezes to the same graph as a graph built one edge at a time, with
+     * repeated edges dropped and nodes numbered in the order they were added.
+     */
+    @Test
+    public void testBuilderFreeze() {
+        LabeledGraph.Builder<String, Double> builder = new LabeledGraph.Builder<>();
+        builder.addNode("n1")
+                .addEdge("n1", "n2", 3.0)
+                .addEdge("n1", "n2", 1.0)
+                .addEdge("n1", "n3", 2.0)
+                .addEdge("n1", "n2", 3.0)
+                .addEdge("n3", "n1", 4.0)
+                .addEdge("n3", "n1", 4.0);
+        FrozenLabeledGraph<String, Double> F = builder.freeze();
+
+        assertEquals(3, F.size());
+        assertEquals(4, F.edgeCount());
+        assertEquals(0, F.nodeId("n1"));
+        assertEquals(1, F.nodeId("n2"));
+        assertEquals(2, F.nodeId("n3"));
+        assertTrue(F.hasEdge("n1", "n2", 1.0));
+        assertTrue(F.hasEdge("n1", "n2", 3.0));
+        assertTrue(F.hasEdge("n3", "n1", 4.0));
+        assertEquals(1.0, F.getEdgeWeight("n1", "n2"), 0);
+        assertTrue(F.getChildNode("n2").isEmpty());
+
+        // later additions don't change graphs already frozen
+        builder.addEdge("n2", "n3", 5.0);
+        assertEquals(4, F.edgeCount());
+        assertEquals(5, builder.freeze().edgeCount());
+    }
+
+    /**
+     * Test that a row far longer than the insertion-sorted ones comes out sorted by child, with
+     * the edges to each child in the order they were added and repeats dropped.
+     */
+    @Test
+    public void testFreezeDenseRow() {
+        int children = 1000;
+        LabeledGraph.Builder<Integer, Double> builder = new LabeledGraph.Builder<>();
+        builder.addNode(-1);
+        for (int i = 0; i < children; i++) {
+            builder.addNode(i);
+        }
+        // the children of -1 arrive scrambled, each with two labels, the larger one first
+        for (int i = 0; i < children; i++) {
+            int child = (i * 7919) % children;
+            builder.addEdge(-1, child, 2.0 * child + 1);
+            builder.addEdge(-1, child, 2.0 * child);
+            builder.addEdge(-1, child, 2.0 * child + 1);
+        }
+        FrozenLabeledGraph<Integer, Double> F = builder.freeze();
+
+        int id = F.nodeId(-1);
+        assertEquals(2 * children, F.edgeEnd(id) - F.edgeStart(id));
+        for (int e = F.edgeStart(id), i = 0; e < F.edgeEnd(id); e += 2, i++) {
+            assertEquals(Integer.valueOf(i), F.getNode(F.edgeTarget(e)));
+            assertEquals(Integer.valueOf(i), F.getNode(F.edgeTarget(e + 1)));
+            assertEquals(2.0 * i + 1, F.edgeWeight(e), 0);
+            assertEquals(2.0 * i, F.edgeWeight(e + 1), 0);
+        }
+        assertEquals(0.0, F.getEdgeWeight(-1, 0), 0);
+    }
+}
@@ -83,9 +83,51 @@ public class LabeledGraphTest {
         G.addEdge(n2, n3, "l2");
         G.removeNode(n2);
         assertFalse(G.hasNode(n2));
-//        HashSet<LabeledGraph<String,String>.Nodes> childNodesOfN1 = G.getChildNode(n1);
-        assertEquals(1, 1);
-//        assertEquals(0, childNodesOfN1.size());
+        HashSet<LabeledGraph<String,String>.Nodes> childNodesOfN1 = G.getChildNode(n1);
+        assertEquals(0, childNodesOfN1.size());
+        assertEquals(0, G.getParentNodes(n3).size());
+    }
+
+    /**
+     * Test graph finds the parents of a node.
+     */
+    @Test
+    public void testGetParentNodes() {
+        G.addEdge(n1, n3, "l1");
+        G.addEdge(n1, n3, "l2");
+        G.addEdge(n2, n3, "l3");
+        assertEquals(new HashSet<>(Arrays.asList(n1, n2)), G.getParentNodes(n3));
+        assertEquals(0, G.getParentNodes(n1).size());
+
+        // n1 stays a parent of n3 until its last edge to n3 is removed
+        G.removeEdge(n1, n3, "l1");
+        assertEquals(new HashSet<>(Arrays.asList(n1, n2)), G.getParentNodes(n3));
+        G.removeEdge(n1, n3, "l2");
+        assertEquals(new HashSet<>(Arrays.asList(n2)), G.getParentNodes(n3));
+
+        // removing a parent removes it from the parents of its children
+        G.removeNode(n2);
+        assertEquals(0, G.getParentNodes(n3).size());
+    }
+
+    /**
+     * Test that removing a node removes the edges to it, including one from itself.
+     */
+    @Test
+    public void testRemoveNodeWithIncomingEdges() {
+        G.addEdge(n1, n2, "l1");
+        G.addEdge(n1, n3, "l2");
+        G.addEdge(n2, n2, "l3");
+        G.addEdge(n3, n2, "l4");
+        G.removeNode(n2);
+        assertFalse(G.hasEdge(n1, n2, "l1"));
+        assertTrue(G.hasEdge(n1, n3, "l2"));
+        assertFalse(G.hasEdge(n3, n2, "l4"));
+        assertEquals(new HashSet<>(Arrays.asList(n3)), G.getChildNode(n1));
+        assertEquals(0, G.getChildNode(n3).size());
+        // a node that was never added, only pointed to, can be removed too
+        G.removeNode(n3);
+        assertEquals(0, G.getChildNode(n1).size());
     }
 
     /**
@@ -114,8 +156,177 @@ public class LabeledGraphTest {
 
     }
 
+    /**
+     * Test that graphs behave the same at every validation level.
+     */
+    @Test
+    public void testValidationLevels() {
+        for (LabeledGraph.Validation validation : LabeledGraph.Validation.values()) {
+            LabeledGraph<String, String> g = new LabeledGraph<>(validation);
+            assertEquals(validation, g.getValidation());
+            LabeledGraph<String, String>.Nodes a = g.new Nodes("a");
+            LabeledGraph<String, String>.Nodes b = g.new Nodes("b");
+            LabeledGraph<String, String>.Nodes c = g.new Nodes("c");
+            assertTrue(g.addEdge(a, b, "l1"));
+            assertTrue(g.addEdge(a, b, "l2"));
+            assertTrue(g.addEdge(b, c, "l3"));
+            assertFalse(g.addEdge(a, b, "l1"));
+            assertTrue(g.removeEdge(a, b, "l1"));
+            assertTrue(g.hasEdge(a, b, "l2"));
+            g.removeNode(b);
+            assertEquals(0, g.getChildNode(a).size());
+            assertEquals(0, g.getParentNodes(c).size());
+        }
+    }
+
+    /**
+     * Test that the validation level of new graphs comes from the system property.
+     */
+    @Test
+    public void testDefaultValidation() {
+        String old = System.getProperty(LabeledGraph.VALIDATION_PROPERTY);
+        try {
+            System.clearProperty(LabeledGraph.VALIDATION_PROPERTY);
+            assertEquals(LabeledGraph.Validation.FULL, new LabeledGraph<String, String>().getValidation());
+            System.setProperty(LabeledGraph.VALIDATION_PROPERTY, "none");
+            assertEquals(LabeledGraph.Validation.NONE, new LabeledGraph<String, String>().getValidation());
+            System.setProperty(LabeledGraph.VALIDATION_PROPERTY, "sometimes");
+            try {
+                new LabeledGraph<String, String>();
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            if (old == null) {
+                System.clearProperty(LabeledGraph.VALIDATION_PROPERTY);
+            } else {
+                System.setProperty(LabeledGraph.VALIDATION_PROPERTY, old);
+            }
+        }
+    }
+
+    /**
+     * Test that a builder builds the same graph as adding its nodes and edges one at a time.
+     */
+    @Test
+    public void testBuilder() {
+        for (LabeledGraph.Validation validation : LabeledGraph.Validation.values()) {
+            LabeledGraph<String, String> g = new LabeledGraph.Builder<String, String>(4, 4)
+                    .validation(validation)
+                    .addNodes(Arrays.asList("n1", "n4", "n1"))
+                    .addEdge("n1", "n2", "l1")
+                    .addEdge("n1", "n2", "l2")
+                    .addEdge("n1", "n2", "l1")
+                    .addEdges(Arrays.asList("n2", "n3"), from -> from, from -> "n1", from -> "back")
+                    .build();
+            LabeledGraph<String, String>.Nodes b1 = g.new Nodes("n1");
+            LabeledGraph<String, String>.Nodes b2 = g.new Nodes("n2");
+            LabeledGraph<String, String>.Nodes b3 = g.new Nodes("n3");
+            LabeledGraph<String, String>.Nodes b4 = g.new Nodes("n4");
 
+            assertEquals(validation, g.getValidation());
+            // the ends of every edge are nodes
+            assertEquals(new HashSet<>(Arrays.asList(b1, b2, b3, b4)), g.getNodes());
+            assertEquals(2, g.getEdges(b1).size());
+            assertTrue(g.hasEdge(b1, b2, "l1"));
+            assertTrue(g.hasEdge(b1, b2, "l2"));
+            assertTrue(g.hasEdge(b3, b1, "back"));
+            assertEquals(new HashSet<>(Arrays.asList(b2, b3)), g.getParentNodes(b1));
 
+            // the graph built can be changed like any other
+            g.removeNode(b1);
+            assertEquals(0, g.getEdges(b2).size());
+            assertEquals(0, g.getParentNodes(b2).size());
+        }
     }
 
+    /**
+     * Test edge weights, including between nodes joined by several edges.
+     */
+    @Test
+    public void testGetEdgeWeight() {
+        LabeledGraph<String, Double> w = new LabeledGraph<>();
+        LabeledGraph<String, Double>.Nodes a = w.new Nodes("a");
+        LabeledGraph<String, Double>.Nodes b = w.new Nodes("b");
+        assertEquals(Double.POSITIVE_INFINITY, w.getEdgeWeight(a, b), 0);
+
+        w.addEdge(a, b, 3.0);
+        assertEquals(3.0, w.getEdgeWeight(a, b), 0);
+        assertEquals(Double.POSITIVE_INFINITY, w.getEdgeWeight(b, a), 0);
+
+        // the least weight wins, and the next least takes over when it is removed
+        w.addEdge(a, b, 1.5);
+        w.addEdge(a, b, 2.0);
+        assertEquals(1.5, w.getEdgeWeight(a, b), 0);
+        w.removeEdge(a, b, 1.5);
+        assertEquals(2.0, w.getEdgeWeight(a, b), 0);
+        assertTrue(w.hasEdge(a, b, 3.0));
+        assertFalse(w.hasEdge(a, b, 1.5));
+
+        w.removeEdge(a, b, 2.0);
+        w.removeEdge(a, b, 3.0);
+        assertEquals(Double.POSITIVE_INFINITY, w.getEdgeWeight(a, b), 0);
+        assertEquals(0, w.getParentNodes(b).size());
+    }
+
+    /**
+     * Test that labels that are not numbers have no weight.
+     */
+    @Test(expected = ClassCastException.class)
+    public void testGetEdgeWeightOfUnweightedEdge() {
+        G.addEdge(n1, n2, "l1");
+        G.getEdgeWeight(n1, n2);
+    }
+
+    /**
+     * Test visiting the edges of a node in place.
+     */
+    @Test
+    public void testForEachEdge() {
+        G.addEdge(n1, n3, "l1");
+        G.addEdge(n1, n2, "l2");
+        G.addEdge(n1, n3, "l3");
+        List<String> visited = new ArrayList<>();
+        G.forEachEdge(n1, (child, label) -> visited.add(child + ":" + label));
+        // grouped by child, children in the order their first edge was added
+        assertEquals(Arrays.asList("n3:l1", "n3:l3", "n2:l2"), visited);
+
+        visited.clear();
+        G.forEachEdge(n2, (child, label) -> visited.add(child + ":" + label));
+        assertTrue(visited.isEmpty());
+    }
+
+    /**
+     * Test that the views of a node's neighbors follow the graph without copying it.
+     */
+    @Test
+    public void testNeighborViews() {
+        Set<LabeledGraph<String, String>.Nodes> children = G.viewChildNodes(n1);
+        Set<LabeledGraph<String, String>.Nodes> parents = G.viewParentNodes(n2);
+        assertTrue(children.isEmpty());
+        assertTrue(parents.isEmpty());
+
+        G.addEdge(n1, n2, "l1");
+        G.addEdge(n1, n3, "l2");
+        assertEquals(new HashSet<>(Arrays.asList(n2, n3)), children);
+        assertEquals(new HashSet<>(Arrays.asList(n1)), parents);
+        assertTrue(children.contains(n3));
 
+        // the views stay current when the nodes are removed and added again
+        G.removeNode(n1);
+        assertTrue(children.isEmpty());
+        assertTrue(parents.isEmpty());
+        G.addEdge(n1, n2, "l3");
+        assertEquals(new HashSet<>(Arrays.asList(n2)), children);
+        assertEquals(new HashSet<>(Arrays.asList(n1)), parents);
+
+        try {
+            children.clear();
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertTrue(G.hasEdge(n1, n2, "l3"));
+    }
+}
@@ -0,0 +1,155 @@
+package pathfinder;
+
+import graph.FrozenLabeledGraph;
+import pathfinder.datastructures.IndexedMinHeap;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.datastructures.ScratchPool;
+import pathfinder.datastructures.SearchSpace;
+
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * A* search over a graph frozen in compressed sparse row form.
+ * <p>
+ * The frontier is ordered by the cost so far plus a heuristic estimate of the cost still to go,
+ * so the search is pulled toward the destination instead of sweeping outward in every direction
+ * like Dijkstra's algorithm. The heuristic must be consistent (never more than the cost of an
+ * edge plus the estimate from the far end of it), which also makes it admissible; then every node
+ * is expanded at most once and the path found is a least-cost path.
+ * <p>
+ * Like PrimitiveDijkstra, an engine is thread-safe and each query borrows its scratch from the
+ * engine's pools, provided the heuristic is safe to call from many threads.
+ */
+public class AStar<T> {
+    private final FrozenLabeledGraph<T, Double> graph;
+    private final ToDoubleBiFunction<T, T> heuristic;
+
+    // Pooled scratch, borrowed for one query at a time: the search space, and the heuristic
+    // estimate to the destination of every node, which is written when the node is first reached
+    // and only read for reached nodes, so it never needs clearing between searches.
+    private final ScratchPool<SearchSpace> spaces;
+    private final ScratchPool<double[]> estimates;
+
+    /**
+     * Create a new engine that searches the given graph
+     *
+     * @param graph     the graph to search, whose edge labels are the edge costs
+     * @param heuristic a consistent lower bound on the cost of travelling from its first argument
+     *                  to its second
+     * @spec.requires graph, heuristic != null and no edge cost is negative
+     */
+    public AStar(FrozenLabeledGraph<T, Double> graph, ToDoubleBiFunction<T, T> heuristic) {
+        this.graph = graph;
+        this.heuristic = heuristic;
+        this.spaces = new ScratchPool<>(() -> new SearchSpace(graph.size()));
+        this.estimates = new ScratchPool<>(() -> new double[graph.size()]);
+    }
+
+    /**
+     * Return a straight-line heuristic for a graph whose nodes are points. The straight-line
+     * distance is scaled by the smallest ratio of edge cost to edge length in the graph, so it
+     * is a consistent lower bound even when costs and coordinates are in different units.
+     *
+     * @param graph the graph the heuristic is for
+     * @return a consistent heuristic for graph
+     * @spec.requires no edge cost in graph is negative
+     */
+    public static ToDoubleBiFunction<Point, Point> euclidean(FrozenLabeledGraph<Point, Double> graph) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < graph.size(); v++) {
+            Point from = graph.getNode(v);
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                double length = distance(from, graph.getNode(graph.edgeTarget(e)));
+                if (length > 0) {
+                    scale = Math.min(scale, graph.edgeWeight(e) / length);
+                }
+            }
+        }
+        if (Double.isInfinite(scale)) {
+            scale = 0;
+        }
+        final double factor = scale;
+        return (from, to) -> factor * distance(from, to);
+    }
+
+    /**
+     * Return the straight-line distance between two points
+     */
+    private static double distance(Point a, Point b) {
+        return Math.hypot(a.getX() - b.getX(), a.getY() - b.getY());
+    }
+
+    /**
+     * Find the least-cost path between two nodes
+     *
+     * @param start the node the path begins at
+     * @param dest  the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires start, dest cannot be null
+     */
+    public Path<T> findPath(T start, T dest) {
+        int from = graph.nodeId(start);
+        int to = graph.nodeId(dest);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return findPath(from, to);
+    }
+
+    /**
+     * Find the least-cost path between two nodes, given by id
+     *
+     * @param start the id of the node the path begins at
+     * @param dest  the id of the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires 0 &lt;= start, dest &lt; graph.size()
+     */
+    public Path<T> findPath(int start, int dest) {
+        SearchSpace space = spaces.borrow();
+        double[] estimate = estimates.borrow();
+        try {
+            return search(space, estimate, start, dest);
+        } finally {
+            spaces.release(space);
+            estimates.release(estimate);
+        }
+    }
+
+    /**
+     * Run A* from start until dest is settled
+     *
+     * @param space    the search space to search in
+     * @param estimate the estimate of every node reached, to be filled in as nodes are reached
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.modifies space, estimate
+     */
+    private Path<T> search(SearchSpace space, double[] estimate, int start, int dest) {
+        space.reset();
+        IndexedMinHeap active = space.heap();
+        T target = graph.getNode(dest);
+
+        space.reach(start, 0, -1);
+        estimate[start] = heuristic.applyAsDouble(graph.getNode(start), target);
+        active.push(start, estimate[start]);
+        while (!active.isEmpty()) {
+            int minDest = active.poll();
+            if (minDest == dest) {
+                return PrimitiveDijkstra.buildPath(graph, start, dest, space::pred, space::parent);
+            }
+            double base = space.dist(minDest);
+            for (int e = graph.edgeStart(minDest); e < graph.edgeEnd(minDest); e++) {
+                int child = graph.edgeTarget(e);
+                double totalCost = base + graph.edgeWeight(e);
+                if (totalCost < space.dist(child)) {
+                    if (!space.reached(child)) {
+                        estimate[child] = heuristic.applyAsDouble(graph.getNode(child), target);
+                    }
+                    space.reach(child, totalCost, e, minDest);
+                    active.push(child, totalCost + estimate[child]);
+                }
+            }
+        }
+        return null;
+    }
+}
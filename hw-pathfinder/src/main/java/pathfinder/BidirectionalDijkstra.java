@@ -0,0 +1,172 @@
+package pathfinder;
+
+import graph.FrozenLabeledGraph;
+import pathfinder.datastructures.IndexedMinHeap;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.ScratchPool;
+import pathfinder.datastructures.SearchSpace;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional Dijkstra's algorithm over a graph frozen in compressed sparse row form.
+ * <p>
+ * One search grows forward from the start and another grows backward from the destination,
+ * always advancing whichever frontier is closer. The search stops once the two frontiers
+ * together are at least as far as the best meeting point found so far, which on a roughly
+ * planar graph like the campus means each side only covers about half the radius a one-sided
+ * search would. The least-cost paths it returns have the same cost as those of DAlgo.
+ * <p>
+ * The backward search follows edges against their direction through a reverse index built
+ * once in the constructor, so the graph does not need to be undirected.
+ * <p>
+ * Like PrimitiveDijkstra, an engine is thread-safe: each query borrows a pair of SearchSpaces, one
+ * per direction, from the engine's pool.
+ */
+public class BidirectionalDijkstra<T> {
+    private final FrozenLabeledGraph<T, Double> graph;
+    // Pooled scratch, two spaces borrowed for each query
+    private final ScratchPool<SearchSpace> spaces;
+
+    // Reverse index: the edges pointing into node v are inEdges[inOffsets[v]..inOffsets[v + 1]),
+    // given as indices into the graph's edge arrays, and inSources holds the parent of each one.
+    private final int[] inOffsets;
+    private final int[] inEdges;
+    private final int[] inSources;
+
+    /**
+     * Create a new engine that searches the given graph
+     *
+     * @param graph the graph to search, whose edge labels are the edge costs
+     * @spec.requires graph != null and no edge cost is negative
+     */
+    public BidirectionalDijkstra(FrozenLabeledGraph<T, Double> graph) {
+        this.graph = graph;
+        this.spaces = new ScratchPool<>(() -> new SearchSpace(graph.size()),
+                2 * Runtime.getRuntime().availableProcessors());
+        int n = graph.size();
+        this.inOffsets = new int[n + 1];
+        this.inEdges = new int[graph.edgeCount()];
+        this.inSources = new int[graph.edgeCount()];
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            inOffsets[graph.edgeTarget(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] next = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int slot = next[graph.edgeTarget(e)]++;
+                inEdges[slot] = e;
+                inSources[slot] = u;
+            }
+        }
+    }
+
+    /**
+     * Find the least-cost path between two nodes
+     *
+     * @param start the node the path begins at
+     * @param dest  the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires start, dest cannot be null
+     */
+    public Path<T> findPath(T start, T dest) {
+        int from = graph.nodeId(start);
+        int to = graph.nodeId(dest);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return findPath(from, to);
+    }
+
+    /**
+     * Find the least-cost path between two nodes, given by id
+     *
+     * @param start the id of the node the path begins at
+     * @param dest  the id of the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires 0 &lt;= start, dest &lt; graph.size()
+     */
+    public Path<T> findPath(int start, int dest) {
+        SearchSpace forwardSpace = spaces.borrow();
+        SearchSpace backwardSpace = spaces.borrow();
+        try {
+            return search(forwardSpace, backwardSpace, start, dest);
+        } finally {
+            spaces.release(forwardSpace);
+            spaces.release(backwardSpace);
+        }
+    }
+
+    /**
+     * Search from start and dest toward each other until the least-cost path between them is known
+     *
+     * @param forwardSpace  the search space of the search from start
+     * @param backwardSpace the search space of the search from dest
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.modifies forwardSpace, backwardSpace
+     */
+    private Path<T> search(SearchSpace forwardSpace, SearchSpace backwardSpace, int start, int dest) {
+        forwardSpace.reset();
+        backwardSpace.reset();
+        IndexedMinHeap forward = forwardSpace.heap();
+        IndexedMinHeap backward = backwardSpace.heap();
+
+        // each node's predecessor is the edge it was reached through: forward, the last edge of
+        // the path from start; backward, the first edge of the path to dest. Its parent is the
+        // other end of that edge.
+        forwardSpace.reach(start, 0, -1);
+        backwardSpace.reach(dest, 0, -1);
+        forward.push(start, 0);
+        backward.push(dest, 0);
+        double best = start == dest ? 0 : Double.POSITIVE_INFINITY;
+        int meet = start == dest ? start : -1;
+
+        while (!forward.isEmpty() && !backward.isEmpty()
+                && forward.peekKey() + backward.peekKey() < best) {
+            if (forward.peekKey() <= backward.peekKey()) {
+                int u = forward.poll();
+                double base = forwardSpace.dist(u);
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    int v = graph.edgeTarget(e);
+                    double totalCost = base + graph.edgeWeight(e);
+                    if (totalCost < forwardSpace.dist(v)) {
+                        forwardSpace.reach(v, totalCost, e, u);
+                        forward.push(v, totalCost);
+                        if (totalCost + backwardSpace.dist(v) < best) {
+                            best = totalCost + backwardSpace.dist(v);
+                            meet = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backward.poll();
+                double base = backwardSpace.dist(u);
+                for (int i = inOffsets[u]; i < inOffsets[u + 1]; i++) {
+                    int v = inSources[i];
+                    double totalCost = base + graph.edgeWeight(inEdges[i]);
+                    if (totalCost < backwardSpace.dist(v)) {
+                        backwardSpace.reach(v, totalCost, inEdges[i], u);
+                        backward.push(v, totalCost);
+                        if (totalCost + forwardSpace.dist(v) < best) {
+                            best = totalCost + forwardSpace.dist(v);
+                            meet = v;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (meet < 0) {
+            return null;
+        }
+        Path<T> path = PrimitiveDijkstra.buildPath(graph, start, meet, forwardSpace::pred, forwardSpace::parent);
+        for (int v = meet; v != dest; v = backwardSpace.parent(v)) {
+            int e = backwardSpace.pred(v);
+            path = path.extend(graph.getNode(graph.edgeTarget(e)), graph.edgeWeight(e));
+        }
+        return path;
+    }
+}
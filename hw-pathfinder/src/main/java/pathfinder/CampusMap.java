@@ -11,103 +11,341 @@
 
 package pathfinder;
 
+import graph.FrozenLabeledGraph;
+import graph.LabeledGraph;
 import pathfinder.parser.CampusBuilding;
+import pathfinder.datastructures.CompactPath;
 import pathfinder.datastructures.Point;
 import pathfinder.datastructures.Path;
 import pathfinder.parser.CampusPath;
 import pathfinder.parser.CampusPathsParser;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
 
+/**
+ * The campus model: the buildings and the routing graph compiled from the campus paths.
+ * <p>
+ * A CampusMap is safe to share between threads. Everything it builds at construction (the
+ * building indexes, the routing graph and the engine's preprocessing) is immutable afterwards,
+ * each search borrows its scratch space from its engine's pool and returns it when done, and the
+ * route cache does its own locking, so any number of threads can route at once without blocking
+ * one another on a search.
+ */
 public class CampusMap implements ModelAPI {
-    private List<CampusBuilding> buildings;
-    private List<CampusPath> paths;
-    private Map<String, String> buildingsNames;
+
+    /**
+     * The shortest-path engines findShortestPath can run on.
+     */
+    public enum Engine {
+        /** DAlgo, searching the adjacency map with Path objects. */
+        DIJKSTRA,
+        /** PrimitiveDijkstra, searching the frozen graph with primitive arrays. */
+        PRIMITIVE_DIJKSTRA,
+        /** AStar, searching the frozen graph guided by the straight-line distance to the destination. */
+        A_STAR,
+        /** BidirectionalDijkstra, searching the frozen graph from both ends at once. */
+        BIDIRECTIONAL,
+        /** ContractionHierarchy, preprocessing the frozen graph once so each query is tiny. */
+        CONTRACTION_HIERARCHY,
+        /** RouteTable, precomputing the routes between every pair of buildings at startup. */
+        ROUTE_TABLE
+    }
+
+    /**
+     * The number of routes a CampusMap caches unless told otherwise.
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 1024;
+
+    // Lookup indexes built once from the buildings: each building by short name, the graph node
+    // id of its entrance by short name (-1 if no path reaches it), and an unmodifiable view of
+    // short name to long name for buildingNames. When a short name is listed more than once, each
+    // index keeps the building the matching query always answered with: the first one for
+    // shortNameExists and longNameForShort, the last one for routing and buildingNames.
+    private final Map<String, CampusBuilding> buildingsByShortName;
+    private final Map<String, Integer> nodeIds;
+    private final Map<String, String> buildingsNames;
+
+    // The routing graph, compiled once from the campus paths and never modified afterwards,
+    // so it can be shared by every query (and every thread) without copying.
+    private final FrozenLabeledGraph<Point, Double> graph;
+
+    // Dijkstra's algorithm over the routing graph, for full single-source searches when a query
+    // wants many routes from the same start, and as the selected engine or its fallback when that
+    // is PRIMITIVE_DIJKSTRA or ROUTE_TABLE
+    private final PrimitiveDijkstra<Point> dijkstra;
+
+    // The selected engine, answering the shortest path between two graph node ids
+    private final RouteSearch search;
+
+    // Recently found routes, keyed by building short names. The cache belongs to this map, so
+    // loading the campus data again (which builds a new CampusMap) starts from an empty cache.
+    private final RouteCache<Point> cache;
 
     public CampusMap(List<CampusBuilding>buildings, List<CampusPath>paths){
-        this.buildings = buildings;
-        this.paths = paths;
-        this.buildingsNames = new HashMap<>();
+        this(buildings, paths, Engine.PRIMITIVE_DIJKSTRA);
+    }
 
-        for (CampusBuilding b: buildings){
-            buildingsNames.put(b.getShortName(), b.getLongName());
-        }
+    public CampusMap(List<CampusBuilding>buildings, List<CampusPath>paths, Engine engine){
+        this(buildings, paths, engine, DEFAULT_CACHE_CAPACITY, RouteCache.Policy.LRU);
     }
 
-    @Override
-    public boolean shortNameExists(String shortName) {
+    public CampusMap(List<CampusBuilding>buildings, List<CampusPath>paths, Engine engine,
+                     int cacheCapacity, RouteCache.Policy cachePolicy){
+        this.graph = buildGraph(paths);
+
+        Map<String, CampusBuilding> byShortName = new HashMap<>();
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        Map<String, String> names = new HashMap<>();
         for (CampusBuilding b : buildings) {
-            if (b.getShortName().equals(shortName)) {
-                return true;
+            // longNameForShort returned the first match of its scan, while routing kept the last
+            // match of a full scan and buildingNames the last name put into its map
+            byShortName.putIfAbsent(b.getShortName(), b);
+            ids.put(b.getShortName(), graph.nodeId(new Point(b.getX(), b.getY())));
+            names.put(b.getShortName(), b.getLongName());
+        }
+        this.buildingsByShortName = Collections.unmodifiableMap(byShortName);
+        this.nodeIds = Collections.unmodifiableMap(ids);
+        this.buildingsNames = Collections.unmodifiableMap(names);
+
+        this.dijkstra = new PrimitiveDijkstra<>(graph);
+        this.search = buildSearch(engine);
+        // every path is walkable both ways at the same cost, so a route reversed is still shortest
+        this.cache = new RouteCache<>(cacheCapacity, cachePolicy, true);
+    }
+
+    /**
+     * @return the cache of routes found by findShortestPath, for its hit, miss and eviction counts
+     */
+    public RouteCache<Point> routeCache() {
+        return cache;
+    }
+
+    /**
+     * Empties the route cache, so every route is searched for again.
+     */
+    public void invalidateRouteCache() {
+        cache.clear();
+    }
+
+    /**
+     * A shortest-path engine set up over the routing graph.
+     */
+    private interface RouteSearch {
+        /**
+         * @param start the graph node id the path begins at
+         * @param end   the graph node id the path ends at
+         * @return the shortest path from start to end, or null if there is none
+         */
+        Path<Point> find(int start, int end);
+    }
+
+    /**
+     * Sets up the given engine over the routing graph, doing any preprocessing it needs.
+     *
+     * @param engine the engine to set up
+     * @return the engine, ready to answer queries
+     */
+    private RouteSearch buildSearch(Engine engine) {
+        switch (engine) {
+            case DIJKSTRA:
+                Map<Point, Map<Point, Double>> adjacency = toAdjacency(graph);
+                return (start, end) -> new DAlgo<>(graph.getNode(start), graph.getNode(end)).method(adjacency);
+            case PRIMITIVE_DIJKSTRA:
+                return dijkstra::findPath;
+            case A_STAR:
+                return new AStar<>(graph, AStar.euclidean(graph))::findPath;
+            case BIDIRECTIONAL:
+                return new BidirectionalDijkstra<>(graph)::findPath;
+            case CONTRACTION_HIERARCHY:
+                return new ContractionHierarchy<>(graph)::findPath;
+            case ROUTE_TABLE:
+                List<Point> entrances = new ArrayList<>();
+                for (int id : nodeIds.values()) {
+                    if (id >= 0) {
+                        entrances.add(graph.getNode(id));
+                    }
+                }
+                return new RouteTable<>(dijkstra, entrances)::findPath;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    /**
+     * Compiles the campus paths into the routing graph in one pass. Every path is walkable in
+     * both directions, so each one contributes an edge each way.
+     *
+     * @param paths the campus paths to compile
+     * @return the frozen graph from each point to its neighbours, labeled with the distance to each
+     */
+    private static FrozenLabeledGraph<Point, Double> buildGraph(List<CampusPath> paths) {
+        LabeledGraph.Builder<Point, Double> builder = new LabeledGraph.Builder<>(paths.size(), 2 * paths.size());
+        for (CampusPath path : paths) {
+            Point startPoint = new Point(path.getX1(), path.getY1());
+            Point endPoint = new Point(path.getX2(), path.getY2());
+            double distance = path.getDistance();
+
+            builder.addEdge(startPoint, endPoint, distance);
+            builder.addEdge(endPoint, startPoint, distance);
+        }
+        return builder.freeze();
+    }
+
+    /**
+     * Copies the routing graph into an immutable adjacency map, for the engines that search one.
+     *
+     * @param graph the routing graph
+     * @return an unmodifiable map from each point to its neighbours and the distance to each one
+     */
+    private static Map<Point, Map<Point, Double>> toAdjacency(FrozenLabeledGraph<Point, Double> graph) {
+        Map<Point, Map<Point, Double>> adjacency = new HashMap<>();
+        for (int id = 0; id < graph.size(); id++) {
+            Map<Point, Double> children = new HashMap<>();
+            for (int e = graph.edgeStart(id); e < graph.edgeEnd(id); e++) {
+                children.put(graph.getNode(graph.edgeTarget(e)), graph.edgeWeight(e));
             }
+            adjacency.put(graph.getNode(id), Collections.unmodifiableMap(children));
         }
-        return false;
+        return Collections.unmodifiableMap(adjacency);
+    }
+
+    @Override
+    public boolean shortNameExists(String shortName) {
+        return buildingsByShortName.containsKey(shortName);
     }
 
     @Override
     public String longNameForShort(String shortName) {
-        for (CampusBuilding b : buildings) {
-            if (b.getShortName().equals(shortName)) {
-                return b.getLongName();
-            }
+        CampusBuilding b = buildingsByShortName.get(shortName);
+        if (b == null) {
+            throw new IllegalArgumentException("short name provided does not exist");
         }
-        throw new IllegalArgumentException("short name provided does not exist");
+        return b.getLongName();
     }
 
     @Override
     public Map<String, String> buildingNames() {
-        for (CampusBuilding b : buildings) {
-            if (!buildingsNames.containsKey(b.getShortName())) {
-                buildingsNames.put(b.getShortName(), b.getLongName());
-            }
-        }
         return this.buildingsNames;
     }
 
     @Override
     public Path<Point> findShortestPath(String startShortName, String endShortName) {
-        CampusBuilding startBuilding = null;
-        CampusBuilding endBuilding = null;
+        Integer start = nodeIds.get(startShortName);
+        Integer end = nodeIds.get(endShortName);
 
-        for (CampusBuilding b : buildings) {
-            if (b.getShortName().equals(startShortName)) {
-                startBuilding = b;
-            }
-            if (b.getShortName().equals(endShortName)) {
-                endBuilding = b;
-            }
-        }
-
-        if (startBuilding == null || endBuilding == null) {
+        if (start == null || end == null) {
             throw new IllegalArgumentException("Start or destination building not found.");
         }
-
-        // Create graphMap and populate it with appropriate data
-        Map<Point, Map<Point, Double>> graphMap = new HashMap<>();
-        for (CampusPath path : paths) {
-            Point startPoint = new Point(path.getX1(), path.getY1());
-            Point endPoint = new Point(path.getX2(), path.getY2());
-            double distance = path.getDistance();
-
-            graphMap.computeIfAbsent(startPoint, k -> new HashMap<>()).put(endPoint, distance);
-            graphMap.computeIfAbsent(endPoint, k -> new HashMap<>()).put(startPoint, distance);
+        if (start < 0 || end < 0) {
+            // no campus path reaches one of the buildings
+            return null;
         }
 
-        // Create points for start and end buildings
-        Point startPoint = new Point(startBuilding.getX(), startBuilding.getY());
-        Point endPoint = new Point(endBuilding.getX(), endBuilding.getY());
-
-        DAlgo<Point> algorithm = new DAlgo<>(startPoint, endPoint);
-        Path<Point> shortestPath = algorithm.method(graphMap);
+        Path<Point> cached = cache.get(startShortName, endShortName);
+        if (cached != null) {
+            return cached;
+        }
 
-        return shortestPath;
+        Path<Point> path = search.find(start, end);
+        if (path != null) {
+            cache.put(startShortName, endShortName, path);
+        }
+        return path;
     }
 
+    /**
+     * Finds the shortest paths between many pairs of buildings at once. The pairs are grouped by
+     * start building, so each distinct start costs at most one single-source search however many
+     * ends it is paired with, and the groups are searched in parallel. The routes are returned
+     * in compact form, ready to be written out, since a batch is meant for a response.
+     *
+     * @param startShortNames the short names of the buildings the routes start at
+     * @param endShortNames   the short names of the buildings the routes end at, in the same order
+     * @return the shortest path for each pair, in the order given, or null for a pair of buildings
+     * that no path connects
+     * @throws IllegalArgumentException if the lists differ in length or name a building that does
+     *                                  not exist
+     * @spec.requires startShortNames, endShortNames != null
+     */
+    public List<CompactPath> findShortestPaths(List<String> startShortNames, List<String> endShortNames) {
+        if (startShortNames.size() != endShortNames.size()) {
+            throw new IllegalArgumentException("Every start building needs an end building.");
+        }
+        Map<String, List<Integer>> pairsByStart = new LinkedHashMap<>();
+        for (int i = 0; i < startShortNames.size(); i++) {
+            if (!nodeIds.containsKey(startShortNames.get(i)) || !nodeIds.containsKey(endShortNames.get(i))) {
+                throw new IllegalArgumentException("Start or destination building not found.");
+            }
+            pairsByStart.computeIfAbsent(startShortNames.get(i), k -> new ArrayList<>()).add(i);
+        }
 
+        // each pair's slot is written by exactly one group, and the stream finishes before it is read
+        List<CompactPath> routes = new ArrayList<>(Collections.nCopies(startShortNames.size(), null));
+        pairsByStart.entrySet().parallelStream().forEach(group -> {
+            String start = group.getKey();
+            List<Integer> missed = new ArrayList<>();
+            for (int i : group.getValue()) {
+                Path<Point> cached = cache.get(start, endShortNames.get(i));
+                if (cached != null) {
+                    routes.set(i, new CompactPath(cached));
+                } else {
+                    missed.add(i);
+                }
+            }
+            int from = nodeIds.get(start);
+            if (missed.isEmpty() || from < 0) {
+                return;
+            }
 
+            dijkstra.searchAll(from, space -> {
+                for (int i : missed) {
+                    int to = nodeIds.get(endShortNames.get(i));
+                    if (to >= 0 && space.reached(to)) {
+                        Path<Point> path = PrimitiveDijkstra.buildPath(graph, from, to, space::pred, space::parent);
+                        cache.put(start, endShortNames.get(i), path);
+                        routes.set(i, new CompactPath(path));
+                    }
+                }
+            });
+        });
+        return routes;
+    }
 
-
-
+    /**
+     * Finds the cost of the shortest path from one building to every building, with one
+     * single-source search over the routing graph.
+     *
+     * @param startShortName the short name of the building the paths start at
+     * @return a map from the short name of every building to the cost of the shortest path to it
+     * from the start, which is 0 for the start itself and {@link Double#POSITIVE_INFINITY} for
+     * buildings no path reaches, in the order the buildings were given
+     * @throws IllegalArgumentException if startShortName is not the short name of a building
+     * @spec.requires startShortName != null
+     */
+    public Map<String, Double> distancesFrom(String startShortName) {
+        Integer from = nodeIds.get(startShortName);
+        if (from == null) {
+            throw new IllegalArgumentException("Start building not found.");
+        }
+        Map<String, Double> distances = new LinkedHashMap<>();
+        for (String building : nodeIds.keySet()) {
+            distances.put(building, building.equals(startShortName) ? 0 : Double.POSITIVE_INFINITY);
+        }
+        if (from >= 0) {
+            dijkstra.searchAll(from, space -> {
+                for (Map.Entry<String, Integer> building : nodeIds.entrySet()) {
+                    int to = building.getValue();
+                    if (to >= 0 && !building.getKey().equals(startShortName)) {
+                        distances.put(building.getKey(), space.dist(to));
+                    }
+                }
+            });
+        }
+        return distances;
+    }
 }
@@ -0,0 +1,93 @@
+package pathfinder;
+
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A model that sits in front of another and merges identical route queries that are in flight at
+ * the same time. The first thread to ask for a (start, end) pair runs the query on the underlying
+ * model; every thread that asks for the same pair before it finishes waits for that one result
+ * instead of computing its own. Once the query finishes it is forgotten, so later requests run
+ * (or hit the underlying model's cache) as usual.
+ * <p>
+ * Every other method is passed straight through. A CoalescingModel is thread-safe if the model
+ * it wraps is.
+ */
+public class CoalescingModel implements ModelAPI {
+
+    private final ModelAPI model;
+
+    // The queries running right now, keyed by [start, end]
+    private final Map<List<String>, CompletableFuture<Path<Point>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Creates a coalescing front for a model.
+     *
+     * @param model the model that answers the queries
+     * @spec.requires model != null
+     */
+    public CoalescingModel(ModelAPI model) {
+        this.model = model;
+    }
+
+    /**
+     * @return the number of queries answered by waiting for an identical query already in flight
+     */
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    @Override
+    public boolean shortNameExists(String shortName) {
+        return model.shortNameExists(shortName);
+    }
+
+    @Override
+    public String longNameForShort(String shortName) {
+        return model.longNameForShort(shortName);
+    }
+
+    @Override
+    public Map<String, String> buildingNames() {
+        return model.buildingNames();
+    }
+
+    @Override
+    public Path<Point> findShortestPath(String startShortName, String endShortName) {
+        List<String> key = List.of(startShortName, endShortName);
+        CompletableFuture<Path<Point>> mine = new CompletableFuture<>();
+        CompletableFuture<Path<Point>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                // rethrow what the query itself threw, as if this thread had run it
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            Path<Point> path = model.findShortestPath(startShortName, endShortName);
+            mine.complete(path);
+            return path;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package pathfinder;
+
+import graph.FrozenLabeledGraph;
+import pathfinder.datastructures.IndexedMinHeap;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.ScratchPool;
+import pathfinder.datastructures.SearchSpace;
+
+import java.util.Arrays;
+
+/**
+ * A contraction hierarchy over a graph frozen in compressed sparse row form.
+ * <p>
+ * The constructor does all the preprocessing: it orders the nodes by importance and contracts
+ * them one at a time, least important first. Contracting a node removes it from the remaining
+ * graph and adds a shortcut arc between each pair of its neighbours whose only shortest
+ * connection ran through it. A query is then a bidirectional Dijkstra search in which both sides
+ * only ever move to more important nodes, so it settles a tiny fraction of the graph. Every
+ * shortcut remembers the two arcs it replaces, so the result is unpacked back into the
+ * original edges before it is returned.
+ * <p>
+ * The graph is static once frozen, so the preprocessing is paid once per data load and any
+ * number of queries can share the result. Queries are thread-safe: the hierarchy is never
+ * modified after construction, and each query borrows a pair of SearchSpaces, one per direction,
+ * from the hierarchy's pool.
+ */
+public class ContractionHierarchy<T> {
+
+    /**
+     * The most nodes a witness search settles before giving up. Giving up early only adds
+     * shortcuts that were not strictly needed; it never makes a query wrong.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    /**
+     * The settle limit for the cheaper witness searches that only estimate a node's priority.
+     */
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+    private final FrozenLabeledGraph<T, Double> graph;
+
+    // Every arc of the hierarchy: the original edges (without self loops, and only the
+    // cheapest of any parallel edges) followed by the shortcuts. An original arc has
+    // arcEdge >= 0, the index of its edge in graph. A shortcut has arcEdge == -1 and
+    // stands for arcFirst followed by arcSecond.
+    private int arcCount;
+    private int[] arcFrom;
+    private int[] arcTo;
+    private int[] arcEdge;
+    private int[] arcFirst;
+    private int[] arcSecond;
+    private double[] arcWeight;
+
+    // The contraction order of every node; a higher rank means a more important node.
+    private final int[] rank;
+
+    // Upward arcs, leaving node v toward a higher rank, are at [upOffsets[v], upOffsets[v + 1]).
+    private int[] upOffsets;
+    private int[] upTargets;
+    private double[] upWeights;
+    private int[] upArcs;
+
+    // Downward arcs, entering node v from a higher rank, are at [downOffsets[v], downOffsets[v + 1]).
+    private int[] downOffsets;
+    private int[] downSources;
+    private double[] downWeights;
+    private int[] downArcs;
+
+    // Pooled scratch, two spaces borrowed for each query; a node's predecessor is the arc it was
+    // reached through
+    private final ScratchPool<SearchSpace> spaces;
+
+    /**
+     * Build the contraction hierarchy of a graph
+     *
+     * @param graph the graph to preprocess, whose edge labels are the edge costs
+     * @spec.requires graph != null and no edge cost is negative
+     */
+    public ContractionHierarchy(FrozenLabeledGraph<T, Double> graph) {
+        this.graph = graph;
+        int n = graph.size();
+        this.spaces = new ScratchPool<>(() -> new SearchSpace(n), 2 * Runtime.getRuntime().availableProcessors());
+        this.rank = new int[n];
+        int capacity = Math.max(16, 2 * graph.edgeCount());
+        this.arcFrom = new int[capacity];
+        this.arcTo = new int[capacity];
+        this.arcEdge = new int[capacity];
+        this.arcFirst = new int[capacity];
+        this.arcSecond = new int[capacity];
+        this.arcWeight = new double[capacity];
+
+        IntList[] out = new IntList[n];
+        IntList[] in = new IntList[n];
+        for (int v = 0; v < n; v++) {
+            out[v] = new IntList();
+            in[v] = new IntList();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int v = graph.edgeTarget(e);
+                if (v == u) {
+                    continue;
+                }
+                // rows are sorted by target, so a parallel edge directly follows the arc just added
+                if (e > graph.edgeStart(u) && graph.edgeTarget(e - 1) == v) {
+                    int last = arcCount - 1;
+                    if (graph.edgeWeight(e) < arcWeight[last]) {
+                        arcWeight[last] = graph.edgeWeight(e);
+                        arcEdge[last] = e;
+                    }
+                    continue;
+                }
+                int a = addArc(u, v, graph.edgeWeight(e), e, -1, -1);
+                out[u].add(a);
+                in[v].add(a);
+            }
+        }
+
+        contractAll(out, in);
+        buildSearchGraph();
+    }
+
+    /**
+     * Add an arc to the hierarchy
+     *
+     * @return the index of the new arc
+     */
+    private int addArc(int from, int to, double weight, int edge, int first, int second) {
+        if (arcCount == arcFrom.length) {
+            int capacity = 2 * arcCount;
+            arcFrom = Arrays.copyOf(arcFrom, capacity);
+            arcTo = Arrays.copyOf(arcTo, capacity);
+            arcEdge = Arrays.copyOf(arcEdge, capacity);
+            arcFirst = Arrays.copyOf(arcFirst, capacity);
+            arcSecond = Arrays.copyOf(arcSecond, capacity);
+            arcWeight = Arrays.copyOf(arcWeight, capacity);
+        }
+        arcFrom[arcCount] = from;
+        arcTo[arcCount] = to;
+        arcWeight[arcCount] = weight;
+        arcEdge[arcCount] = edge;
+        arcFirst[arcCount] = first;
+        arcSecond[arcCount] = second;
+        return arcCount++;
+    }
+
+    /**
+     * Contract every node, least important first, filling in rank and adding shortcuts.
+     * Importance is the edge difference (shortcuts added minus arcs removed) plus the number of
+     * neighbours already contracted, which spreads contraction evenly over the graph. Priorities
+     * are updated lazily: a node is only contracted if its recomputed priority is still the lowest.
+     */
+    private void contractAll(IntList[] out, IntList[] in) {
+        int n = graph.size();
+        Contraction state = new Contraction(n, out, in);
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        for (int v = 0; v < n; v++) {
+            queue.push(v, state.priority(v));
+        }
+        int order = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            double priority = state.priority(v);
+            if (!queue.isEmpty() && priority > queue.peekKey()) {
+                queue.push(v, priority);
+                continue;
+            }
+            state.contract(v);
+            rank[v] = order++;
+        }
+    }
+
+    /**
+     * Split the arcs into the upward and downward search graphs, in CSR form, and trim the arc
+     * arrays to size.
+     */
+    private void buildSearchGraph() {
+        int n = graph.size();
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int a = 0; a < arcCount; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                upOffsets[arcFrom[a] + 1]++;
+            } else {
+                downOffsets[arcTo[a] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        upTargets = new int[upOffsets[n]];
+        upWeights = new double[upOffsets[n]];
+        upArcs = new int[upOffsets[n]];
+        downSources = new int[downOffsets[n]];
+        downWeights = new double[downOffsets[n]];
+        downArcs = new int[downOffsets[n]];
+        int[] nextUp = Arrays.copyOf(upOffsets, n);
+        int[] nextDown = Arrays.copyOf(downOffsets, n);
+        for (int a = 0; a < arcCount; a++) {
+            if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+                int slot = nextUp[arcFrom[a]]++;
+                upTargets[slot] = arcTo[a];
+                upWeights[slot] = arcWeight[a];
+                upArcs[slot] = a;
+            } else {
+                int slot = nextDown[arcTo[a]]++;
+                downSources[slot] = arcFrom[a];
+                downWeights[slot] = arcWeight[a];
+                downArcs[slot] = a;
+            }
+        }
+        arcFrom = Arrays.copyOf(arcFrom, arcCount);
+        arcTo = Arrays.copyOf(arcTo, arcCount);
+        arcEdge = Arrays.copyOf(arcEdge, arcCount);
+        arcFirst = Arrays.copyOf(arcFirst, arcCount);
+        arcSecond = Arrays.copyOf(arcSecond, arcCount);
+        arcWeight = Arrays.copyOf(arcWeight, arcCount);
+    }
+
+    /**
+     * Return the number of shortcut arcs the preprocessing added
+     *
+     * @return number of shortcuts in this hierarchy
+     */
+    public int shortcutCount() {
+        int count = 0;
+        for (int a = 0; a < arcCount; a++) {
+            if (arcEdge[a] < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find the least-cost path between two nodes
+     *
+     * @param start the node the path begins at
+     * @param dest  the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires start, dest cannot be null
+     */
+    public Path<T> findPath(T start, T dest) {
+        int from = graph.nodeId(start);
+        int to = graph.nodeId(dest);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return findPath(from, to);
+    }
+
+    /**
+     * Find the least-cost path between two nodes, given by id
+     *
+     * @param start the id of the node the path begins at
+     * @param dest  the id of the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires 0 &lt;= start, dest &lt; graph.size()
+     */
+    public Path<T> findPath(int start, int dest) {
+        SearchSpace forwardSpace = spaces.borrow();
+        SearchSpace backwardSpace = spaces.borrow();
+        try {
+            return search(forwardSpace, backwardSpace, start, dest);
+        } finally {
+            spaces.release(forwardSpace);
+            spaces.release(backwardSpace);
+        }
+    }
+
+    /**
+     * Search from start and dest toward each other until the least-cost path between them is known
+     *
+     * @param forwardSpace  the search space of the search from start
+     * @param backwardSpace the search space of the search from dest
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.modifies forwardSpace, backwardSpace
+     */
+    private Path<T> search(SearchSpace forwardSpace, SearchSpace backwardSpace, int start, int dest) {
+        forwardSpace.reset();
+        backwardSpace.reset();
+        IndexedMinHeap forward = forwardSpace.heap();
+        IndexedMinHeap backward = backwardSpace.heap();
+
+        forwardSpace.reach(start, 0, -1);
+        backwardSpace.reach(dest, 0, -1);
+        forward.push(start, 0);
+        backward.push(dest, 0);
+        double best = start == dest ? 0 : Double.POSITIVE_INFINITY;
+        int meet = start == dest ? start : -1;
+
+        // Unlike plain bidirectional search, the two sides cannot stop when they first meet: the
+        // meeting point must be the most important node of the path. Each side stops once its
+        // own frontier is no closer than the best path found.
+        while (true) {
+            if (!forward.isEmpty() && forward.peekKey() >= best) {
+                forward.clear();
+            }
+            if (!backward.isEmpty() && backward.peekKey() >= best) {
+                backward.clear();
+            }
+            if (forward.isEmpty() && backward.isEmpty()) {
+                break;
+            }
+            if (!forward.isEmpty() && (backward.isEmpty() || forward.peekKey() <= backward.peekKey())) {
+                int u = forward.poll();
+                double base = forwardSpace.dist(u);
+                for (int i = upOffsets[u]; i < upOffsets[u + 1]; i++) {
+                    int v = upTargets[i];
+                    double totalCost = base + upWeights[i];
+                    if (totalCost < forwardSpace.dist(v)) {
+                        forwardSpace.reach(v, totalCost, upArcs[i]);
+                        forward.push(v, totalCost);
+                        if (totalCost + backwardSpace.dist(v) < best) {
+                            best = totalCost + backwardSpace.dist(v);
+                            meet = v;
+                        }
+                    }
+                }
+            } else {
+                int u = backward.poll();
+                double base = backwardSpace.dist(u);
+                for (int i = downOffsets[u]; i < downOffsets[u + 1]; i++) {
+                    int v = downSources[i];
+                    double totalCost = base + downWeights[i];
+                    if (totalCost < backwardSpace.dist(v)) {
+                        backwardSpace.reach(v, totalCost, downArcs[i]);
+                        backward.push(v, totalCost);
+                        if (totalCost + forwardSpace.dist(v) < best) {
+                            best = totalCost + forwardSpace.dist(v);
+                            meet = v;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (meet < 0) {
+            return null;
+        }
+        IntList arcs = new IntList();
+        for (int v = meet; v != start; v = arcFrom[forwardSpace.pred(v)]) {
+            arcs.add(forwardSpace.pred(v));
+        }
+        arcs.reverse();
+        for (int v = meet; v != dest; v = arcTo[backwardSpace.pred(v)]) {
+            arcs.add(backwardSpace.pred(v));
+        }
+        return unpack(start, arcs);
+    }
+
+    /**
+     * Expand a chain of arcs, shortcuts included, into a Path over the original edges
+     *
+     * @param start the id of the node the chain begins at
+     * @param arcs  the arcs of the chain, in order
+     * @return the path along the original edges the chain stands for
+     */
+    private Path<T> unpack(int start, IntList arcs) {
+        Path<T> path = new Path<>(graph.getNode(start));
+        IntList stack = new IntList();
+        for (int i = 0; i < arcs.size(); i++) {
+            stack.add(arcs.get(i));
+            while (stack.size() > 0) {
+                int a = stack.removeLast();
+                if (arcEdge[a] >= 0) {
+                    int e = arcEdge[a];
+                    path = path.extend(graph.getNode(graph.edgeTarget(e)), graph.edgeWeight(e));
+                } else {
+                    stack.add(arcSecond[a]);
+                    stack.add(arcFirst[a]);
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * The working state of the contraction: which nodes are gone, and the scratch space of the
+     * witness searches that decide which shortcuts are needed.
+     */
+    private final class Contraction {
+        private final IntList[] out;
+        private final IntList[] in;
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        private final double[] witnessDist;
+        private final IntList touched;
+        private final IndexedMinHeap witnessQueue;
+
+        Contraction(int n, IntList[] out, IntList[] in) {
+            this.out = out;
+            this.in = in;
+            this.contracted = new boolean[n];
+            this.contractedNeighbors = new int[n];
+            this.witnessDist = new double[n];
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+            this.touched = new IntList();
+            this.witnessQueue = new IndexedMinHeap(n);
+        }
+
+        /**
+         * Return the contraction priority of v; lower is contracted sooner
+         */
+        double priority(int v) {
+            int removed = 0;
+            for (int i = 0; i < out[v].size(); i++) {
+                if (!contracted[arcTo[out[v].get(i)]]) {
+                    removed++;
+                }
+            }
+            for (int i = 0; i < in[v].size(); i++) {
+                if (!contracted[arcFrom[in[v].get(i)]]) {
+                    removed++;
+                }
+            }
+            return shortcuts(v, false) - removed + contractedNeighbors[v];
+        }
+
+        /**
+         * Remove v from the remaining graph, adding the shortcuts that keeps distances intact
+         */
+        void contract(int v) {
+            shortcuts(v, true);
+            contracted[v] = true;
+            for (int i = 0; i < out[v].size(); i++) {
+                int w = arcTo[out[v].get(i)];
+                contractedNeighbors[w]++;
+                removeContracted(in[w], arcFrom);
+            }
+            for (int i = 0; i < in[v].size(); i++) {
+                int u = arcFrom[in[v].get(i)];
+                contractedNeighbors[u]++;
+                removeContracted(out[u], arcTo);
+            }
+        }
+
+        /**
+         * Drop the arcs of a remaining node whose other end (given by ends) has been contracted
+         */
+        private void removeContracted(IntList arcs, int[] ends) {
+            int kept = 0;
+            for (int i = 0; i < arcs.size(); i++) {
+                int a = arcs.get(i);
+                if (!contracted[ends[a]]) {
+                    arcs.set(kept++, a);
+                }
+            }
+            arcs.truncate(kept);
+        }
+
+        /**
+         * Count, and if add is true also create, the shortcuts needed to contract v: one from
+         * u to w for every remaining arc u -> v and v -> w such that no witness path from u
+         * to w avoiding v is as cheap as going through v.
+         */
+        int shortcuts(int v, boolean add) {
+            double maxOut = 0;
+            for (int j = 0; j < out[v].size(); j++) {
+                int a2 = out[v].get(j);
+                if (!contracted[arcTo[a2]]) {
+                    maxOut = Math.max(maxOut, arcWeight[a2]);
+                }
+            }
+            int count = 0;
+            int inCount = in[v].size();
+            for (int i = 0; i < inCount; i++) {
+                int a1 = in[v].get(i);
+                int u = arcFrom[a1];
+                if (contracted[u]) {
+                    continue;
+                }
+                witnessSearch(u, v, arcWeight[a1] + maxOut, add ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+                int outCount = out[v].size();
+                for (int j = 0; j < outCount; j++) {
+                    int a2 = out[v].get(j);
+                    int w = arcTo[a2];
+                    if (w == u || contracted[w]) {
+                        continue;
+                    }
+                    double via = arcWeight[a1] + arcWeight[a2];
+                    if (witnessDist[w] > via) {
+                        count++;
+                        if (add) {
+                            int shortcut = addArc(u, w, via, -1, a1, a2);
+                            out[u].add(shortcut);
+                            in[w].add(shortcut);
+                        }
+                    }
+                }
+                for (int t = 0; t < touched.size(); t++) {
+                    witnessDist[touched.get(t)] = Double.POSITIVE_INFINITY;
+                }
+                touched.clear();
+            }
+            return count;
+        }
+
+        /**
+         * Run a bounded Dijkstra search from source over the remaining graph without v, leaving
+         * the distances it finds in witnessDist and the nodes it reaches in touched
+         */
+        private void witnessSearch(int source, int v, double limit, int settleLimit) {
+            witnessDist[source] = 0;
+            touched.add(source);
+            witnessQueue.push(source, 0);
+            int settled = 0;
+            while (!witnessQueue.isEmpty()) {
+                int x = witnessQueue.poll();
+                if (witnessDist[x] > limit || ++settled > settleLimit) {
+                    break;
+                }
+                for (int i = 0; i < out[x].size(); i++) {
+                    int a = out[x].get(i);
+                    int y = arcTo[a];
+                    if (y == v || contracted[y]) {
+                        continue;
+                    }
+                    double d = witnessDist[x] + arcWeight[a];
+                    if (d < witnessDist[y]) {
+                        if (witnessDist[y] == Double.POSITIVE_INFINITY) {
+                            touched.add(y);
+                        }
+                        witnessDist[y] = d;
+                        witnessQueue.push(y, d);
+                    }
+                }
+            }
+            witnessQueue.clear();
+        }
+    }
+
+    /**
+     * A growable list of primitive ints.
+     */
+    private static final class IntList {
+        private int[] items = new int[4];
+        private int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, 2 * size);
+            }
+            items[size++] = item;
+        }
+
+        int get(int i) {
+            return items[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void set(int i, int item) {
+            items[i] = item;
+        }
+
+        void truncate(int newSize) {
+            size = newSize;
+        }
+
+        int removeLast() {
+            return items[--size];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void reverse() {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                int tmp = items[i];
+                items[i] = items[j];
+                items[j] = tmp;
+            }
+        }
+    }
+}
@@ -4,47 +4,106 @@ import pathfinder.datastructures.Path;
 import pathfinder.datastructures.Point;
 import java.util.*;
 
+/**
+ * Dijkstra's algorithm over an adjacency map, finding the least-cost path from one node to another.
+ * <p>
+ * A DAlgo holds the state of its search (the queue of paths, the finished nodes and the best costs
+ * queued) in its fields, so it is not thread-safe: each thread must use its own DAlgo. Each call
+ * to method starts a fresh search, so one DAlgo can be run again, but a DAlgo is cheap and meant
+ * to be created for a single query. Concurrent queries over a shared graph should use one of the
+ * engines over a FrozenLabeledGraph, which lend each query scratch space from a pool.
+ */
 public class DAlgo<T> {
     private T start;
     private T dest;
+    private boolean stopAtDest;
     private PriorityQueue<Path<T>> active;
     private Set<T> finished;
+    private Map<T, Double> queuedCost; // Lowest cost any queued path has reached each node with
     private Path<T> shortestPath; // Store the shortest path found
 
+    /**
+     * Create a search from start to dest that stops as soon as dest is finalized
+     *
+     * @param start the node the path begins at
+     * @param dest  the node the path ends at
+     */
     public DAlgo(T start, T dest) {
+        this(start, dest, true);
+    }
+
+    /**
+     * Create a search from start to dest
+     *
+     * @param start      the node the path begins at
+     * @param dest       the node the path ends at
+     * @param stopAtDest true to stop as soon as dest is finalized, false to finalize every node
+     *                   reachable from start
+     */
+    public DAlgo(T start, T dest, boolean stopAtDest) {
         this.start = start;
         this.dest = dest;
+        this.stopAtDest = stopAtDest;
         this.active = new PriorityQueue<>();
         this.finished = new HashSet<>();
+        this.queuedCost = new HashMap<>();
         this.shortestPath = null;
     }
 
+    /**
+     * Search the graph for the least-cost path from start to dest
+     *
+     * @param graph the graph to search, mapping each node to its children and the cost of the edge
+     *              to each one
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires graph != null and no edge cost is negative
+     * @spec.modifies this
+     */
     public Path<T> method(Map<T, Map<T, Double>> graph) {
+        // forget any earlier run, so every call is a fresh search
+        active.clear();
+        finished.clear();
+        queuedCost.clear();
+        shortestPath = null;
+
         active.add(new Path<>(start));
+        queuedCost.put(start, 0.0);
 
         while (!active.isEmpty()) {
             Path<T> minPath = active.poll();
             T minDest = minPath.getEnd();
 
+            // A cheaper path already finalized this node, so this entry is stale (lazy deletion)
+            if (finished.contains(minDest)) {
+                continue;
+            }
+            finished.add(minDest);
+
             if (minDest.equals(dest)) {
-                if (shortestPath == null || minPath.getCost() < shortestPath.getCost()) {
-                    shortestPath = minPath; // Update shortestPath if a shorter path is found
+                shortestPath = minPath; // The first path to reach dest off the queue is the shortest
+                if (stopAtDest) {
+                    break;
                 }
             }
 
-            if (finished.contains(minDest)) {
+            Map<T, Double> children = graph.get(minDest);
+            if (children == null) {
                 continue;
             }
-
-            for (T child : graph.get(minDest).keySet()) {
-                if (!finished.contains(child)) {
-                    double w = graph.get(minDest).get(child);
-                    double totalCost = minPath.getCost() + w;
-                    Path<T> newPath = minPath.extend(child, totalCost);
-                    active.add(newPath);
+            for (Map.Entry<T, Double> entry : children.entrySet()) {
+                T child = entry.getKey();
+                if (finished.contains(child)) {
+                    continue;
+                }
+                double w = entry.getValue();
+                double totalCost = minPath.getCost() + w;
+                // Only queue a path that improves on the best one queued so far (decrease-key)
+                Double known = queuedCost.get(child);
+                if (known == null || totalCost < known) {
+                    queuedCost.put(child, totalCost);
+                    active.add(minPath.extend(child, w));
                 }
             }
-            finished.add(minDest);
         }
 
         return shortestPath;
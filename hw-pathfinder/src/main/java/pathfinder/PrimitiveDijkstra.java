@@ -0,0 +1,189 @@
+package pathfinder;
+
+import graph.FrozenLabeledGraph;
+import pathfinder.datastructures.IndexedMinHeap;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.ScratchPool;
+import pathfinder.datastructures.SearchSpace;
+
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Dijkstra's algorithm specialized to a graph frozen in compressed sparse row form.
+ * <p>
+ * Unlike DAlgo, which queues a whole Path object for every edge it relaxes, this engine works on
+ * integer node ids: tentative distances and predecessor edges are kept in primitive arrays, the
+ * frontier is an IndexedMinHeap with decrease-key, and the Path is only built once, after the
+ * destination has been settled.
+ * <p>
+ * An engine is thread-safe. The graph is never modified, and each query borrows a SearchSpace from
+ * the engine's pool for as long as it searches, so concurrent queries share nothing mutable. A
+ * space is reset in time proportional to what its last search touched, so once the pool has a
+ * space for each query running at the same time, a query allocates only its Path.
+ */
+public class PrimitiveDijkstra<T> {
+    private final FrozenLabeledGraph<T, Double> graph;
+    private final ScratchPool<SearchSpace> spaces;
+
+    /**
+     * Create a new engine that searches the given graph
+     *
+     * @param graph the graph to search, whose edge labels are the edge costs
+     * @spec.requires graph != null and no edge cost is negative
+     */
+    public PrimitiveDijkstra(FrozenLabeledGraph<T, Double> graph) {
+        this.graph = graph;
+        this.spaces = new ScratchPool<>(() -> new SearchSpace(graph.size()));
+    }
+
+    /**
+     * @return the graph this engine searches
+     */
+    public FrozenLabeledGraph<T, Double> graph() {
+        return graph;
+    }
+
+    /**
+     * Find the least-cost path between two nodes
+     *
+     * @param start the node the path begins at
+     * @param dest  the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires start, dest cannot be null
+     */
+    public Path<T> findPath(T start, T dest) {
+        int from = graph.nodeId(start);
+        int to = graph.nodeId(dest);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return findPath(from, to);
+    }
+
+    /**
+     * Find the least-cost path between two nodes, given by id
+     *
+     * @param start the id of the node the path begins at
+     * @param dest  the id of the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires 0 &lt;= start, dest &lt; graph.size()
+     */
+    public Path<T> findPath(int start, int dest) {
+        SearchSpace space = spaces.borrow();
+        try {
+            search(space, start, dest);
+            if (!space.reached(dest)) {
+                return null;
+            }
+            return buildPath(graph, start, dest, space::pred, space::parent);
+        } finally {
+            spaces.release(space);
+        }
+    }
+
+    /**
+     * Find the least-cost paths from one node to every node it can reach, and read them from the
+     * search space they were found in
+     *
+     * @param start  the id of the node the paths begin at
+     * @param reader given the search space, holding the least cost from start to every node and,
+     *               for every node reached other than start, the last edge of a least-cost path
+     *               to it as its predecessor and the node that edge leaves as its parent. The
+     *               space goes back to the engine's pool when reader returns, so reader must not
+     *               keep it.
+     * @spec.requires 0 &lt;= start &lt; graph.size() and reader != null
+     */
+    public void searchAll(int start, Consumer<? super SearchSpace> reader) {
+        SearchSpace space = spaces.borrow();
+        try {
+            search(space, start, -1);
+            reader.accept(space);
+        } finally {
+            spaces.release(space);
+        }
+    }
+
+    /**
+     * Find the least-cost paths from one node to every node it can reach
+     *
+     * @param start    the id of the node the paths begin at
+     * @param dist     filled with the least cost from start to every node, or
+     *                 {@link Double#POSITIVE_INFINITY} for nodes start cannot reach
+     * @param prevEdge filled with the last edge of the least-cost path to every node reached
+     *                 other than start; the entries of other nodes are unspecified
+     * @param prevNode filled with the node that prevEdge leaves, for the same nodes
+     * @spec.requires 0 &lt;= start &lt; graph.size() and dist, prevEdge, prevNode have length
+     * graph.size()
+     * @spec.modifies dist, prevEdge, prevNode
+     */
+    public void searchAll(int start, double[] dist, int[] prevEdge, int[] prevNode) {
+        searchAll(start, space -> {
+            for (int v = 0; v < dist.length; v++) {
+                dist[v] = space.dist(v);
+                prevEdge[v] = space.pred(v);
+                prevNode[v] = space.parent(v);
+            }
+        });
+    }
+
+    /**
+     * Run Dijkstra's algorithm from start until dest is settled, or until every reachable node
+     * is settled if dest is -1
+     *
+     * @param space the search space to search in, which is left holding the search
+     * @spec.modifies space
+     */
+    private void search(SearchSpace space, int start, int dest) {
+        space.reset();
+        IndexedMinHeap active = space.heap();
+
+        space.reach(start, 0, -1);
+        active.push(start, 0);
+        while (!active.isEmpty()) {
+            int minDest = active.poll();
+            if (minDest == dest) {
+                break;
+            }
+            // a node leaves the heap exactly once, with its final distance, so it is never expanded twice
+            double base = space.dist(minDest);
+            for (int e = graph.edgeStart(minDest); e < graph.edgeEnd(minDest); e++) {
+                int child = graph.edgeTarget(e);
+                double totalCost = base + graph.edgeWeight(e);
+                if (totalCost < space.dist(child)) {
+                    space.reach(child, totalCost, e, minDest);
+                    active.push(child, totalCost);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the Path from start to dest by walking the predecessor edges back from dest, in time
+     * proportional to the length of the path
+     *
+     * @param graph    the graph that was searched
+     * @param start    the id of the node the path begins at
+     * @param dest     the id of the node the path ends at
+     * @param prevEdge the edge each node on the path was reached through
+     * @param prevNode the node each of those edges leaves
+     * @return the path from start to dest
+     */
+    static <T> Path<T> buildPath(FrozenLabeledGraph<T, Double> graph, int start, int dest,
+                                 IntUnaryOperator prevEdge, IntUnaryOperator prevNode) {
+        int length = 0;
+        for (int v = dest; v != start; v = prevNode.applyAsInt(v)) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int v = dest, i = length - 1; i >= 0; i--) {
+            edges[i] = prevEdge.applyAsInt(v);
+            v = prevNode.applyAsInt(v);
+        }
+        Path<T> path = new Path<>(graph.getNode(start));
+        for (int e : edges) {
+            path = path.extend(graph.getNode(graph.edgeTarget(e)), graph.edgeWeight(e));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,247 @@
+package pathfinder;
+
+import pathfinder.datastructures.Path;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded, thread-safe cache of routes between pairs of named places.
+ * <p>
+ * When the cache is full, adding a route evicts another one, chosen by the cache's Policy. If the
+ * routes are symmetric (the route from b to a is the route from a to b walked backwards), a
+ * lookup that misses its own pair is answered by reversing the route cached for the opposite
+ * pair. Paths are immutable, so the same cached path can be handed to any number of callers.
+ */
+public class RouteCache<T> {
+
+    /**
+     * The ways a full cache can choose which route to evict.
+     */
+    public enum Policy {
+        /** Evict the route that was used least recently. */
+        LRU,
+        /** Evict the route that was used the fewest times, the least recently used among ties. */
+        LFU
+    }
+
+    // AF(this) = the routes cached => the values of entries, each keyed by its (start, end) pair
+    //            the number of times each route was used => entries.get(k).uses
+    //            the order routes were last used in => the iteration order of entries for LRU,
+    //                and of each set in byUses for LFU, least recent first
+    //
+    // Rep Invariant:
+    //      entries.size() <= capacity &&
+    //      for LFU, each key of entries is in exactly the set byUses.get(entries.get(key).uses),
+    //          no set in byUses is empty, and fewestUses is the least key of byUses if any
+
+    private final int capacity;
+    private final Policy policy;
+    private final boolean symmetric;
+
+    private final LinkedHashMap<Key, Entry<T>> entries;
+    private final Map<Integer, LinkedHashSet<Key>> byUses;
+    private int fewestUses;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a new, empty cache.
+     *
+     * @param capacity  the greatest number of routes the cache holds at once
+     * @param policy    how to choose the route to evict when the cache is full
+     * @param symmetric whether a route may be answered by reversing the route of the opposite pair
+     * @throws IllegalArgumentException if capacity &lt; 1
+     * @spec.requires policy != null
+     */
+    public RouteCache(int capacity, Policy policy, boolean symmetric) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive.");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.symmetric = symmetric;
+        // an LRU cache keeps its entries in access order, so the eldest is the one to evict
+        this.entries = new LinkedHashMap<>(16, 0.75f, policy == Policy.LRU);
+        this.byUses = new HashMap<>();
+    }
+
+    /**
+     * Returns the cached route between two places, counting a hit or a miss.
+     *
+     * @param start the name of the place the route begins at
+     * @param end   the name of the place the route ends at
+     * @return the cached route from start to end, or null if there is none
+     * @spec.requires start, end != null
+     */
+    public synchronized Path<T> get(String start, String end) {
+        Entry<T> entry = use(new Key(start, end));
+        if (entry != null) {
+            hits++;
+            return entry.path;
+        }
+        if (symmetric) {
+            Entry<T> reverse = use(new Key(end, start));
+            if (reverse != null) {
+                hits++;
+                return reverse.path.reverse();
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Adds a route to the cache, evicting another route if the cache is full.
+     *
+     * @param start the name of the place the route begins at
+     * @param end   the name of the place the route ends at
+     * @param path  the route from start to end
+     * @spec.requires start, end, path != null
+     * @spec.modifies this
+     */
+    public synchronized void put(String start, String end, Path<T> path) {
+        Key key = new Key(start, end);
+        Entry<T> entry = entries.get(key);
+        if (entry != null) {
+            entry.path = path;
+            use(key);
+            return;
+        }
+        if (entries.size() == capacity) {
+            evict();
+        }
+        entries.put(key, new Entry<>(path));
+        if (policy == Policy.LFU) {
+            byUses.computeIfAbsent(1, k -> new LinkedHashSet<>()).add(key);
+            fewestUses = 1;
+        }
+    }
+
+    /**
+     * Removes every route from the cache. The hit, miss and eviction counts are kept.
+     *
+     * @spec.modifies this
+     */
+    public synchronized void clear() {
+        entries.clear();
+        byUses.clear();
+    }
+
+    /**
+     * @return the number of routes in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups the cache could not answer
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of routes evicted to make room for others
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Looks up an entry and records that it was used.
+     *
+     * @return the entry for key, or null if there is none
+     */
+    private Entry<T> use(Key key) {
+        // for LRU the access-ordered map records the use itself
+        Entry<T> entry = entries.get(key);
+        if (entry != null && policy == Policy.LFU) {
+            LinkedHashSet<Key> bucket = byUses.get(entry.uses);
+            bucket.remove(key);
+            if (bucket.isEmpty()) {
+                byUses.remove(entry.uses);
+                if (fewestUses == entry.uses) {
+                    fewestUses++;
+                }
+            }
+            entry.uses++;
+            byUses.computeIfAbsent(entry.uses, k -> new LinkedHashSet<>()).add(key);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the route chosen by the policy from a non-empty cache.
+     */
+    private void evict() {
+        Key victim;
+        if (policy == Policy.LFU) {
+            LinkedHashSet<Key> bucket = byUses.get(fewestUses);
+            Iterator<Key> it = bucket.iterator();
+            victim = it.next();
+            it.remove();
+            if (bucket.isEmpty()) {
+                byUses.remove(fewestUses);
+            }
+        } else {
+            victim = entries.keySet().iterator().next();
+        }
+        entries.remove(victim);
+        evictions++;
+    }
+
+    /**
+     * An ordered (start, end) pair of place names.
+     */
+    private static final class Key {
+        private final String start;
+        private final String end;
+
+        private Key(String start, String end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return start.equals(other.start) && end.equals(other.end);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end);
+        }
+    }
+
+    /**
+     * A cached route and the number of times it has been used.
+     */
+    private static final class Entry<T> {
+        private Path<T> path;
+        private int uses;
+
+        private Entry(Path<T> path) {
+            this.path = path;
+            this.uses = 1;
+        }
+    }
+}
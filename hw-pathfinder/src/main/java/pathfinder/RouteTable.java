@@ -0,0 +1,169 @@
+package pathfinder;
+
+import graph.FrozenLabeledGraph;
+import pathfinder.datastructures.Path;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * A table of the least-cost routes between every pair of a fixed set of endpoints, such as the
+ * campus buildings.
+ * <p>
+ * The constructor runs one full single-source Dijkstra search per endpoint, in parallel, and keeps
+ * the cost between every pair of endpoints together with the tree of predecessor edges of each
+ * search. A query between two endpoints is then a walk back along the predecessor edges, with no
+ * searching at all. Queries starting anywhere else are answered by an ordinary search.
+ */
+public class RouteTable<T> {
+    private final FrozenLabeledGraph<T, Double> graph;
+    private final PrimitiveDijkstra<T> fallback;
+
+    // rowOf[v] is the row of the endpoint with node id v, or -1 if v is not an endpoint. The
+    // endpoint in a row has node id sources[row], the cost from it to the endpoint in row j is
+    // costs[row * sources.length + j], and prevEdges[row][v] is the last edge of the least-cost
+    // path from it to node v, or -1 if v is the source or cannot be reached, and prevNodes[row][v]
+    // is the node that edge leaves, so a route is read back without looking up edge sources.
+    private final int[] rowOf;
+    private final int[] sources;
+    private final double[] costs;
+    private final int[][] prevEdges;
+    private final int[][] prevNodes;
+
+    /**
+     * Create a table of the routes between every pair of the given endpoints
+     *
+     * @param graph     the graph to search, whose edge labels are the edge costs
+     * @param endpoints the nodes to precompute routes between; nodes not in graph are ignored
+     * @spec.requires graph, endpoints != null and no edge cost is negative
+     */
+    public RouteTable(FrozenLabeledGraph<T, Double> graph, Collection<? extends T> endpoints) {
+        this(new PrimitiveDijkstra<>(graph), endpoints);
+    }
+
+    /**
+     * Create a table of the routes between every pair of the given endpoints, searching with an
+     * engine that already exists, which also answers the queries that do not start at an endpoint
+     *
+     * @param engine    the engine to search the graph with
+     * @param endpoints the nodes to precompute routes between; nodes not in the engine's graph
+     *                  are ignored
+     * @spec.requires engine, endpoints != null
+     */
+    public RouteTable(PrimitiveDijkstra<T> engine, Collection<? extends T> endpoints) {
+        this.graph = engine.graph();
+        this.fallback = engine;
+        int n = graph.size();
+        this.rowOf = new int[n];
+        Arrays.fill(rowOf, -1);
+        int[] ids = new int[endpoints.size()];
+        int count = 0;
+        for (T endpoint : endpoints) {
+            int id = graph.nodeId(endpoint);
+            if (id >= 0 && rowOf[id] < 0) {
+                rowOf[id] = count;
+                ids[count++] = id;
+            }
+        }
+        this.sources = Arrays.copyOf(ids, count);
+
+        int k = sources.length;
+        this.costs = new double[k * k];
+        this.prevEdges = new int[k][];
+        this.prevNodes = new int[k][];
+        // each row is written by exactly one task, so the rows need no locking
+        IntStream.range(0, k).parallel().forEach(row -> {
+            double[] dist = new double[n];
+            int[] prevEdge = new int[n];
+            int[] prevNode = new int[n];
+            fallback.searchAll(sources[row], dist, prevEdge, prevNode);
+            for (int v = 0; v < n; v++) {
+                if (v == sources[row] || dist[v] == Double.POSITIVE_INFINITY) {
+                    prevEdge[v] = -1;
+                }
+            }
+            for (int j = 0; j < k; j++) {
+                costs[row * k + j] = dist[sources[j]];
+            }
+            prevEdges[row] = prevEdge;
+            prevNodes[row] = prevNode;
+        });
+    }
+
+    /**
+     * Return the number of endpoints in the table
+     *
+     * @return the number of distinct endpoints that are nodes of the graph
+     */
+    public int endpointCount() {
+        return sources.length;
+    }
+
+    /**
+     * Return the cost of the least-cost route between two endpoints
+     *
+     * @param start the endpoint the route begins at
+     * @param dest  the endpoint the route ends at
+     * @return the cost of the least-cost route from start to dest, or
+     * {@link Double#POSITIVE_INFINITY} if there is none
+     * @throws IllegalArgumentException if start or dest is not an endpoint of the table
+     */
+    public double getCost(T start, T dest) {
+        int from = row(start);
+        int to = row(dest);
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Not an endpoint of the route table.");
+        }
+        return costs[from * sources.length + to];
+    }
+
+    /**
+     * Return the row of a node in the table
+     *
+     * @return the row of node, or -1 if it is not an endpoint
+     */
+    private int row(T node) {
+        int id = graph.nodeId(node);
+        return id < 0 ? -1 : rowOf[id];
+    }
+
+    /**
+     * Find the least-cost path between two nodes, read from the table when start is an endpoint
+     *
+     * @param start the node the path begins at
+     * @param dest  the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires start, dest cannot be null
+     */
+    public Path<T> findPath(T start, T dest) {
+        int from = graph.nodeId(start);
+        int to = graph.nodeId(dest);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        return findPath(from, to);
+    }
+
+    /**
+     * Find the least-cost path between two nodes, given by id, read from the table when start is
+     * an endpoint
+     *
+     * @param start the id of the node the path begins at
+     * @param dest  the id of the node the path ends at
+     * @return the least-cost path from start to dest, or null if there is none
+     * @spec.requires 0 &lt;= start, dest &lt; graph.size()
+     */
+    public Path<T> findPath(int start, int dest) {
+        int row = rowOf[start];
+        if (row < 0) {
+            return fallback.findPath(start, dest);
+        }
+        if (dest != start && prevEdges[row][dest] < 0) {
+            return null;
+        }
+        int[] prevEdge = prevEdges[row];
+        int[] prevNode = prevNodes[row];
+        return PrimitiveDijkstra.buildPath(graph, start, dest, v -> prevEdge[v], v -> prevNode[v]);
+    }
+}
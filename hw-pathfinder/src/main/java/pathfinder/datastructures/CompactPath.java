@@ -0,0 +1,243 @@
+package pathfinder.datastructures;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This represents an immutable path between points, like a Path of Points, flattened into a single
+ * array of doubles. It holds no Point or Segment objects: the segments are created on demand when
+ * the path is iterated, and the path can be written out as JSON straight from the array, in the
+ * same shape Gson gives a Path of Points.
+ */
+public class CompactPath implements Iterable<Path<Point>.Segment> {
+
+    // AF(this) =
+    //      the i-th point along the path (the start is point 0) =>
+    //          (data[STRIDE * i], data[STRIDE * i + 1])
+    //      the cost of the segment ending at point i => data[STRIDE * i + 2], which is 0 for i = 0
+    //      the total cost from the start to point i => data[STRIDE * i + 3]
+    //      total cost along the path => the total cost to the last point
+    //
+    // Rep Invariant:
+    //      data != null &&
+    //      data.length is a positive multiple of STRIDE &&
+    //      every value in data is finite &&
+    //      data[2] == 0 && data[3] == 0 &&
+    //      data[STRIDE * i + 3] == data[STRIDE * (i - 1) + 3] + data[STRIDE * i + 2] for every
+    //          0 < i < size() - 1
+    //
+    // The total to the last point is the cost of the Path it was copied from, which is the same
+    // sum except for rounding when that Path was built by Path#reverse.
+    //
+    // Segment costs are stored as well as the running totals, so that every segment keeps exactly
+    // the cost it had in the Path, rather than the difference of two rounded totals.
+
+    /**
+     * The number of doubles stored for each point.
+     */
+    private static final int STRIDE = 4;
+
+    /**
+     * The coordinates, segment cost and total cost of every point along the path, in order.
+     */
+    private final double[] data;
+
+    /**
+     * Constructs a compact copy of the given path.
+     *
+     * @param path The path to copy.
+     */
+    public CompactPath(Path<Point> path) {
+        int points = 1;
+        for(Path<Point>.Segment ignored : path) {
+            points++;
+        }
+        this.data = new double[STRIDE * points];
+        data[0] = path.getStart().getX();
+        data[1] = path.getStart().getY();
+        int i = STRIDE;
+        double total = 0;
+        for(Path<Point>.Segment segment : path) {
+            // summed in the same order as Path#extend, so the totals match the costs of its prefixes
+            total += segment.getCost();
+            data[i] = segment.getEnd().getX();
+            data[i + 1] = segment.getEnd().getY();
+            data[i + 2] = segment.getCost();
+            data[i + 3] = total;
+            i += STRIDE;
+        }
+        data[data.length - 1] = path.getCost();
+        checkRep();
+    }
+
+    /**
+     * @return The number of points along this path, counting the start, which is one more than
+     * the number of segments.
+     */
+    public int size() {
+        return data.length / STRIDE;
+    }
+
+    /**
+     * @return The total cost along this path.
+     */
+    public double getCost() {
+        return data[data.length - 1];
+    }
+
+    /**
+     * @param i The index of a point along this path, where the start is point 0.
+     * @return The x coordinate of point i.
+     * @throws IndexOutOfBoundsException if i is not between 0 and size() - 1.
+     */
+    public double getX(int i) {
+        return data[index(i)];
+    }
+
+    /**
+     * @param i The index of a point along this path, where the start is point 0.
+     * @return The y coordinate of point i.
+     * @throws IndexOutOfBoundsException if i is not between 0 and size() - 1.
+     */
+    public double getY(int i) {
+        return data[index(i) + 1];
+    }
+
+    /**
+     * @param i The index of a point along this path, where the start is point 0.
+     * @return The total cost along this path from the start to point i.
+     * @throws IndexOutOfBoundsException if i is not between 0 and size() - 1.
+     */
+    public double getCostTo(int i) {
+        return data[index(i) + 3];
+    }
+
+    /**
+     * @return The point at the beginning of this path.
+     */
+    public Point getStart() {
+        return new Point(data[0], data[1]);
+    }
+
+    /**
+     * @return The point at the end of this path, which is the start point if this path contains
+     * no segments.
+     */
+    public Point getEnd() {
+        return new Point(data[data.length - STRIDE], data[data.length - STRIDE + 1]);
+    }
+
+    /**
+     * @return A Path with the same segments as this path.
+     */
+    public Path<Point> toPath() {
+        Path<Point> path = new Path<>(getStart());
+        for(int i = STRIDE; i < data.length; i += STRIDE) {
+            path = path.extend(new Point(data[i], data[i + 1]), data[i + 2]);
+        }
+        return path;
+    }
+
+    /**
+     * @return An iterator of the segments in this path, in order, creating each one as it is
+     * reached. This iterator does not support the optional Iterator#remove() operation and will
+     * throw an UnsupportedOperationException if Iterator#remove() is called.
+     */
+    @Override
+    public Iterator<Path<Point>.Segment> iterator() {
+        return new Iterator<Path<Point>.Segment>() {
+
+            private final Path<Point> owner = new Path<>(getStart());
+
+            private Point previous = owner.getStart();
+
+            private int next = STRIDE;
+
+            @Override
+            public boolean hasNext() {
+                return next < data.length;
+            }
+
+            @Override
+            public Path<Point>.Segment next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Point end = new Point(data[next], data[next + 1]);
+                Path<Point>.Segment segment = owner.newSegment(previous, end, data[next + 2]);
+                previous = end;
+                next += STRIDE;
+                return segment;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Paths may not be modified.");
+            }
+        };
+    }
+
+    /**
+     * Writes this path as JSON, in the same form Gson writes the equivalent Path of Points:
+     * an object with the total cost, the start point, and the list of segments, each with its
+     * start point, end point and cost.
+     *
+     * @param out Where to write the JSON.
+     * @throws IOException if out throws it.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\"cost\":").append(Double.toString(getCost()));
+        out.append(",\"start\":");
+        writePoint(out, 0);
+        out.append(",\"path\":[");
+        for(int i = STRIDE; i < data.length; i += STRIDE) {
+            if(i > STRIDE) {
+                out.append(',');
+            }
+            out.append("{\"start\":");
+            writePoint(out, i - STRIDE);
+            out.append(",\"end\":");
+            writePoint(out, i);
+            out.append(",\"cost\":").append(Double.toString(data[i + 2])).append('}');
+        }
+        out.append("]}");
+    }
+
+    /**
+     * Writes the point stored at the given offset of data as a JSON object.
+     */
+    private void writePoint(Appendable out, int offset) throws IOException {
+        out.append("{\"x\":").append(Double.toString(data[offset]));
+        out.append(",\"y\":").append(Double.toString(data[offset + 1])).append('}');
+    }
+
+    /**
+     * @return The offset in data of point i.
+     * @throws IndexOutOfBoundsException if i is not between 0 and size() - 1.
+     */
+    private int index(int i) {
+        if(i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("No point " + i + " in a path of " + size() + " points.");
+        }
+        return STRIDE * i;
+    }
+
+    /**
+     * Ensures that the representation invariant has not been violated. Returns normally if
+     * there is no violation.
+     */
+    private void checkRep() {
+        assert data != null;
+        assert data.length > 0 && data.length % STRIDE == 0;
+        assert data[2] == 0 && data[3] == 0;
+        for(int i = STRIDE; i < data.length - STRIDE; i += STRIDE) {
+            assert data[i + 3] == data[i - 1] + data[i + 2];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toPath().toString();
+    }
+}
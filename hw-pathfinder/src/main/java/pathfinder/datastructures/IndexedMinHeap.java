@@ -0,0 +1,195 @@
+package pathfinder.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A mutable binary min-heap of integer ids in [0, capacity), ordered by a double key per id.
+ * Each id is in the heap at most once; pushing an id that is already present lowers its key
+ * instead of adding a second entry (decrease-key). Everything is kept in primitive arrays, so
+ * pushing and polling never allocate.
+ */
+public class IndexedMinHeap {
+
+    // AF(this) =
+    //      the ids in the heap => heap[0], ..., heap[size - 1]
+    //      the key of an id in the heap => keys[id]
+    //      the id with the smallest key => heap[0]
+
+    // Rep Invariant:
+    //      0 <= size <= heap.length &&
+    //      heap.length == keys.length == positions.length &&
+    //      positions[heap[i]] == i for every 0 <= i < size &&
+    //      positions[id] == -1 for every id not in heap[0..size) &&
+    //      keys[heap[(i - 1) / 2]] <= keys[heap[i]] for every 0 < i < size
+
+    /**
+     * The ids in the heap, in binary heap order.
+     */
+    private final int[] heap;
+
+    /**
+     * The key of every id, indexed by id. Only meaningful for ids currently in the heap.
+     */
+    private final double[] keys;
+
+    /**
+     * The index of every id in heap, or -1 if the id is not in the heap.
+     */
+    private final int[] positions;
+
+    /**
+     * The number of ids in the heap.
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty heap that can hold the ids 0 through {@code capacity - 1}.
+     *
+     * @param capacity The number of distinct ids this heap can hold.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public IndexedMinHeap(int capacity) {
+        if(capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative.");
+        }
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        this.size = 0;
+    }
+
+    /**
+     * @return {@literal true} iff there are no ids in this heap.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of ids in this heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param id The id to look for.
+     * @return {@literal true} iff {@code id} is in this heap.
+     */
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * Adds {@code id} to this heap with the given key, or, if it is already in the heap,
+     * lowers its key to {@code key}.
+     *
+     * @param id  The id to add or update, in [0, capacity).
+     * @param key The new key of {@code id}.
+     * @throws IllegalArgumentException if {@code id} is in the heap with a key smaller than
+     *                                  {@code key}.
+     */
+    public void push(int id, double key) {
+        int i = positions[id];
+        if(i < 0) {
+            i = size++;
+            heap[i] = id;
+            positions[id] = i;
+        } else if(key > keys[id]) {
+            throw new IllegalArgumentException("Keys may only decrease.");
+        }
+        keys[id] = key;
+        siftUp(i);
+    }
+
+    /**
+     * @return The smallest key in this heap.
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    public double peekKey() {
+        if(size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes the id with the smallest key from this heap.
+     *
+     * @return The removed id.
+     * @throws NoSuchElementException if this heap is empty.
+     */
+    public int poll() {
+        if(size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if(size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes every id from this heap. Takes time proportional to the number of ids removed,
+     * not to the capacity.
+     */
+    public void clear() {
+        for(int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the entry at heap index {@code i} up until its parent's key is no larger.
+     */
+    private void siftUp(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentId = heap[parent];
+            if(keys[parentId] <= key) {
+                break;
+            }
+            heap[i] = parentId;
+            positions[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+    /**
+     * Moves the entry at heap index {@code i} down until neither child has a smaller key.
+     */
+    private void siftDown(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= size) {
+                break;
+            }
+            if(child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            int childId = heap[child];
+            if(keys[childId] >= key) {
+                break;
+            }
+            heap[i] = childId;
+            positions[childId] = i;
+            i = child;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+}
@@ -11,7 +11,9 @@
 
 package pathfinder.datastructures;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -40,6 +42,9 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
     //      start != null &&
     //      path != null &&
     //      path does not contain null elements
+    //
+    // Paths share structure: the segment list of an extended path is the segment list of the path
+    // it extends plus one node for the new segment, so extend takes constant time and space.
 
     /**
      * The total cost along all the segments in this path.
@@ -54,7 +59,7 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
     /**
      * The ordered sequence of segments representing a path between points.
      */
-    private List<Segment> path;
+    private SegmentList<Segment> path;
 
     /**
      * Creates a new, empty path containing a start point. Essentially this represents a path
@@ -65,10 +70,23 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
     public Path(T start) {
         this.start = start;
         this.cost = 0;
-        this.path = new ArrayList<>();
+        this.path = new SegmentList<>(null, null);
         checkRep();
     }
 
+    /**
+     * Creates a new path from its parts, sharing the given segment list.
+     *
+     * @param start The starting point of the path.
+     * @param path  The segments of the path.
+     * @param cost  The total cost along the segments.
+     */
+    private Path(T start, SegmentList<Segment> path, double cost) {
+        this.start = start;
+        this.path = path;
+        this.cost = cost;
+    }
+
     /**
      * Appends a new single segment to the end of this path, originating at the current last point
      * in this path and terminating at {@code newEnd}. The cost of adding this additional segment
@@ -83,10 +101,9 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
     public Path<T> extend(T newEnd, double segmentCost) {
         checkRep();
         //
-        Path<T> extendedPath = new Path<>(start);
-        extendedPath.path.addAll(this.path);
-        extendedPath.path.add(new Segment(this.getEnd(), newEnd, segmentCost));
-        extendedPath.cost = this.cost + segmentCost;
+        Path<T> extendedPath = new Path<>(start,
+                                          new SegmentList<>(this.path, new Segment(this.getEnd(), newEnd, segmentCost)),
+                                          this.cost + segmentCost);
         //
         extendedPath.checkRep();
         checkRep();
@@ -94,6 +111,45 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
         return extendedPath;
     }
 
+    /**
+     * Returns this path walked backwards: a path from {@code this.getEnd()} to
+     * {@code this.getStart()} through the same points in the opposite order, where each segment
+     * has the cost of the segment it reverses.
+     *
+     * @return A new path representing the current path in the opposite direction.
+     */
+    public Path<T> reverse() {
+        checkRep();
+        //
+        // walking back from the last segment visits the segments in the order they are reversed in
+        SegmentList<Segment> reversed = new SegmentList<>(null, null);
+        for(SegmentList<Segment> node = path; node.last != null; node = node.prefix) {
+            Segment segment = node.last;
+            reversed = new SegmentList<>(reversed, new Segment(segment.getEnd(), segment.getStart(), segment.getCost()));
+        }
+        Path<T> reversedPath = new Path<>(this.getEnd(), reversed, this.cost);
+        //
+        reversedPath.checkRep();
+        checkRep();
+        //
+        return reversedPath;
+    }
+
+    /**
+     * Creates a segment belonging to this path's type, for other path representations in this
+     * package that create their segments on demand.
+     *
+     * @param start The starting point of the segment.
+     * @param end   The ending point of the segment.
+     * @param cost  The cost of travelling the segment.
+     * @return A new segment with the given characteristics.
+     * @throws NullPointerException     if either point is null.
+     * @throws IllegalArgumentException if cost is infinite or NaN
+     */
+    Segment newSegment(T start, T end, double cost) {
+        return new Segment(start, end, cost);
+    }
+
     /**
      * @return The total cost along this path.
      */
@@ -116,7 +172,7 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
         if(path.size() == 0) {
             return start;
         }
-        return path.get(path.size() - 1).getEnd();
+        return path.last.getEnd();
     }
 
     /**
@@ -159,9 +215,9 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
         assert Double.isFinite(cost);
         assert start != null;
         assert path != null;
-        for(Segment segment : path) {
-            assert segment != null;
-        }
+        // Every earlier segment was checked when the path it ends was built, and segment lists are
+        // never modified, so only the newest one needs checking. This keeps extend constant time.
+        assert path.size() == 0 || path.last != null;
     }
 
     /**
@@ -213,6 +269,70 @@ public class Path<T> implements Iterable<Path<T>.Segment>, Comparable<Path<T>> {
         return sb.toString();
     }
 
+    /**
+     * SegmentList is an immutable list of segments stored as a chain of nodes, each holding the
+     * last segment of the list and a pointer to the list of the segments before it. Lists sharing
+     * a prefix share its nodes. Positional access copies the segments into an array the first time
+     * it is needed, so that each list is materialized at most once.
+     */
+    private static final class SegmentList<S> extends AbstractList<S> {
+
+        // AF(this) = the empty list if last == null, otherwise the elements of prefix followed by last
+        //
+        // Rep. Invariant = (last == null && prefix == null && size == 0)
+        //                  || (last != null && prefix != null && size == prefix.size + 1)
+
+        /**
+         * The last element of this list, or null if this list is empty.
+         */
+        private final S last;
+
+        /**
+         * The list of every element but the last, or null if this list is empty.
+         */
+        private final SegmentList<S> prefix;
+
+        /**
+         * The number of elements in this list.
+         */
+        private final int size;
+
+        /**
+         * The elements of this list in order, once they have been needed, or null before then.
+         * Racing threads may each build a copy, but every copy is equal.
+         */
+        private volatile List<S> materialized;
+
+        /**
+         * Constructs the list of the elements of prefix followed by last, or the empty list if both
+         * are null.
+         */
+        private SegmentList(SegmentList<S> prefix, S last) {
+            this.prefix = prefix;
+            this.last = last;
+            this.size = prefix == null ? 0 : prefix.size + 1;
+        }
+
+        @Override
+        public S get(int index) {
+            List<S> elements = materialized;
+            if(elements == null) {
+                ArrayList<S> copy = new ArrayList<>(size);
+                for(SegmentList<S> node = this; node.last != null; node = node.prefix) {
+                    copy.add(node.last);
+                }
+                Collections.reverse(copy);
+                materialized = elements = copy;
+            }
+            return elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
     /**
      * Segment represents a single segment as part of a longer, more complex path between points.
      * Segments are immutable parts of a larger path that cannot be instantiated directly, and
@@ -0,0 +1,99 @@
+package pathfinder.datastructures;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of reusable scratch objects, such as the SearchSpaces of a shortest-path engine.
+ * <p>
+ * A search borrows its scratch from the pool and returns it when it is done, so the scratch is
+ * shared by whichever threads are searching at the moment rather than owned by every thread that
+ * ever searched. A borrow is served by an idle object when there is one and by a new object when
+ * every one is in use; a returned object is kept for the next borrow only while fewer than the
+ * pool's limit are idle, and is otherwise left for the garbage collector. The pool therefore
+ * holds at most its limit of idle objects however many threads come and go, which matters when
+ * every request runs on a thread of its own.
+ * <p>
+ * A ScratchPool is thread-safe, and borrowing or returning never blocks.
+ */
+public class ScratchPool<S> {
+
+    // AF(this) =
+    //      the idle objects, ready to be borrowed => idle
+    //      the most idle objects kept => maxIdle
+
+    // Rep Invariant:
+    //      idle.size() <= idleCount <= maxIdle once every borrow and release in progress returns &&
+    //      factory != null && maxIdle >= 0
+
+    private final Supplier<? extends S> factory;
+    private final int maxIdle;
+    private final ConcurrentLinkedQueue<S> idle = new ConcurrentLinkedQueue<>();
+    // Counts the idle objects, counting one being returned before it is queued and one being
+    // borrowed until after it is dequeued, so the queue never holds more than maxIdle
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * Creates an empty pool that keeps up to one idle object per available processor.
+     *
+     * @param factory Makes a new object when none is idle.
+     * @spec.requires factory != null
+     */
+    public ScratchPool(Supplier<? extends S> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param factory Makes a new object when none is idle.
+     * @param maxIdle The most idle objects to keep.
+     * @throws IllegalArgumentException if maxIdle is negative.
+     * @spec.requires factory != null
+     */
+    public ScratchPool(Supplier<? extends S> factory, int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("maxIdle must not be negative: " + maxIdle);
+        }
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Takes an object out of the pool, making a new one if none is idle. The caller has the
+     * object to itself until it returns it with {@link #release(Object)}.
+     *
+     * @return An object no one else is using.
+     */
+    public S borrow() {
+        S scratch = idle.poll();
+        if (scratch == null) {
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        return scratch;
+    }
+
+    /**
+     * Returns a borrowed object to the pool, keeping it for the next borrow unless the pool
+     * already has as many idle objects as it keeps. The caller must not use it afterwards.
+     *
+     * @param scratch An object borrowed from this pool.
+     * @spec.requires scratch != null and scratch is not idle in this pool
+     */
+    public void release(S scratch) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(scratch);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return The number of idle objects in the pool.
+     */
+    public int idle() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,138 @@
+package pathfinder.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * The scratch space of one shortest-path search over integer node ids in [0, capacity): a
+ * tentative distance, a predecessor and a parent for every node, and the frontier heap.
+ * <p>
+ * A search space is meant to be reused for search after search, one search at a time. Resetting
+ * it does not touch the distance arrays: every entry is stamped with the search it was written
+ * in, and entries stamped with an earlier search read as unreached. A reset therefore costs only
+ * as much as clearing whatever the previous search left in the heap, so a search that touches a
+ * small part of a large graph pays only for that part. A search space is not thread-safe; the
+ * engines lend them out through a {@link ScratchPool}.
+ */
+public class SearchSpace {
+
+    // AF(this) =
+    //      the nodes reached by the current search => the ids v with stamps[v] == epoch
+    //      the tentative distance of a reached node v => dist[v]
+    //      the predecessor recorded for a reached node v => pred[v]
+    //      the parent recorded for a reached node v => parents[v]
+    //      the frontier of the current search => heap
+
+    // Rep Invariant:
+    //      dist.length == pred.length == parents.length == stamps.length &&
+    //      epoch >= 1 &&
+    //      stamps[v] <= epoch for every v &&
+    //      heap != null
+
+    private final double[] dist;
+    private final int[] pred;
+    private final int[] parents;
+    private final int[] stamps;
+    private final IndexedMinHeap heap;
+    private int epoch;
+
+    /**
+     * Creates a new search space for nodes 0 through {@code capacity - 1}, ready for a search.
+     *
+     * @param capacity The number of nodes.
+     * @throws IllegalArgumentException if capacity is negative.
+     */
+    public SearchSpace(int capacity) {
+        this.heap = new IndexedMinHeap(capacity);
+        this.dist = new double[capacity];
+        this.pred = new int[capacity];
+        this.parents = new int[capacity];
+        this.stamps = new int[capacity];
+        this.epoch = 1;
+    }
+
+    /**
+     * @return The number of nodes this search space has room for.
+     */
+    public int capacity() {
+        return dist.length;
+    }
+
+    /**
+     * Forgets the previous search, so that no node is reached and the heap is empty.
+     */
+    public void reset() {
+        heap.clear();
+        epoch++;
+        if(epoch == Integer.MAX_VALUE) {
+            // Stamps are about to be reused, so old ones must not be mistaken for new ones.
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * @param v A node id.
+     * @return {@literal true} iff {@code v} has been reached by the current search.
+     */
+    public boolean reached(int v) {
+        return stamps[v] == epoch;
+    }
+
+    /**
+     * @param v A node id.
+     * @return The tentative distance of {@code v}, or {@link Double#POSITIVE_INFINITY} if it has
+     * not been reached by the current search.
+     */
+    public double dist(int v) {
+        return stamps[v] == epoch ? dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param v A node id reached by the current search.
+     * @return The predecessor last recorded for {@code v}.
+     */
+    public int pred(int v) {
+        return pred[v];
+    }
+
+    /**
+     * @param v A node id reached by the current search.
+     * @return The parent last recorded for {@code v}, if it was reached with one.
+     */
+    public int parent(int v) {
+        return parents[v];
+    }
+
+    /**
+     * Records a new tentative distance and predecessor for a node, marking it reached.
+     *
+     * @param v        A node id.
+     * @param distance The tentative distance of {@code v}.
+     * @param previous The predecessor of {@code v}, such as the edge it was reached by.
+     */
+    public void reach(int v, double distance, int previous) {
+        stamps[v] = epoch;
+        dist[v] = distance;
+        pred[v] = previous;
+    }
+
+    /**
+     * Records a new tentative distance, predecessor and parent for a node, marking it reached.
+     *
+     * @param v        A node id.
+     * @param distance The tentative distance of {@code v}.
+     * @param previous The predecessor of {@code v}, such as the edge it was reached by.
+     * @param parent   The node {@code v} was reached from.
+     */
+    public void reach(int v, double distance, int previous, int parent) {
+        reach(v, distance, previous);
+        parents[v] = parent;
+    }
+
+    /**
+     * @return The frontier heap of the current search.
+     */
+    public IndexedMinHeap heap() {
+        return heap;
+    }
+}
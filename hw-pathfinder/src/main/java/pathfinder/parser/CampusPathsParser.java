@@ -11,12 +11,11 @@
 
 package pathfinder.parser;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * A utility class capable of parsing data in campus buildings and
@@ -34,20 +33,51 @@ public class CampusPathsParser {
      * @throws ParserException if the file cannot be found or parsed as expected
      */
     public static List<CampusBuilding> parseCampusBuildings(String file) {
+        try (CsvReader csv = open(file)) {
+            return parseBuildings(csv);
+        } catch (IOException e) {
+            throw new ParserException("Cannot read file: " + file, e);
+        }
+    }
+
+    /**
+     * Parses a campus buildings file anywhere in the file system, so that the data can be
+     * changed and read again while the program runs.
+     *
+     * @param file The path of a campus buildings file to parse.
+     * @return A {@link List} of {@link CampusBuilding} objects, one for each
+     * line in the parsed file, containing the data contained within that line.
+     * @throws ParserException if the file cannot be read or parsed as expected
+     */
+    public static List<CampusBuilding> parseCampusBuildings(Path file) {
+        try (CsvReader csv = new CsvReader(file)) {
+            return parseBuildings(csv);
+        } catch (IOException e) {
+            throw new ParserException("Cannot read file: " + file, e);
+        }
+    }
+
+    /**
+     * Parses the rows of a campus buildings file.
+     *
+     * @param csv The reader of the rows to parse.
+     * @return A {@link List} of {@link CampusBuilding} objects, one for each row.
+     * @throws ParserException if a row cannot be parsed as expected
+     * @throws IOException if the file cannot be read
+     */
+    private static List<CampusBuilding> parseBuildings(CsvReader csv) throws IOException {
         List<CampusBuilding> buildings = new ArrayList<>();
-        List<String> lines = readLines(file);
         //
-        for (String line : lines) {
-            String[] fields = line.split(",");
-            if (fields.length != 4) {
+        while (csv.nextRow()) {
+            if (csv.fieldCount() != 4) {
                 throw new ParserException("Wrong number of fields in line.");
             }
-            String shortName = fields[0];
-            String longName = fields[1];
+            String shortName = csv.getString(0);
+            String longName = csv.getString(1);
             double x, y;
             try {
-                x = Double.parseDouble(fields[2]);
-                y = Double.parseDouble(fields[3]);
+                x = csv.getDouble(2);
+                y = csv.getDouble(3);
             } catch (NumberFormatException e) {
                 throw new ParserException("Cannot parse x/y coordinates as numbers", e);
             }
@@ -69,45 +99,120 @@ public class CampusPathsParser {
      */
     public static List<CampusPath> parseCampusPaths(String file) {
         List<CampusPath> paths = new ArrayList<>();
-        List<String> lines = readLines(file);
-        //
-        for (String line : lines) {
-            String[] fields = line.split(",");
-            if (fields.length != 5) {
+        forEachCampusPath(file, (x1, y1, x2, y2, distance) -> paths.add(new CampusPath(x1, y1, x2, y2, distance)));
+        return paths;
+    }
+
+    /**
+     * Parses a campus paths file anywhere in the file system, so that the data can be changed
+     * and read again while the program runs.
+     *
+     * @param file The path of a campus paths file to parse.
+     * @return A {@link List} of {@link CampusPath} objects, one for each
+     * line in the parsed file, containing the data contained within that line.
+     * @throws ParserException if the file cannot be read or parsed as expected
+     */
+    public static List<CampusPath> parseCampusPaths(Path file) {
+        List<CampusPath> paths = new ArrayList<>();
+        forEachCampusPath(file, (x1, y1, x2, y2, distance) -> paths.add(new CampusPath(x1, y1, x2, y2, distance)));
+        return paths;
+    }
+
+    /**
+     * Parses the campus paths file (in src/main/resources/data/) one line at a time, handing
+     * the values on each line to the given action without creating any objects for it. This
+     * reads a file of any size in constant memory.
+     *
+     * @param file   The simple filename of a campus paths file to parse.
+     * @param action The action to perform on the values of each line, in file order.
+     * @throws ParserException if the file cannot be found or parsed as expected
+     */
+    public static void forEachCampusPath(String file, PathAction action) {
+        try (CsvReader csv = open(file)) {
+            parsePaths(csv, action);
+        } catch (IOException e) {
+            throw new ParserException("Cannot read file: " + file, e);
+        }
+    }
+
+    /**
+     * Parses a campus paths file anywhere in the file system one line at a time, handing the
+     * values on each line to the given action without creating any objects for it. This reads
+     * a file of any size in constant memory.
+     *
+     * @param file   The path of a campus paths file to parse.
+     * @param action The action to perform on the values of each line, in file order.
+     * @throws ParserException if the file cannot be read or parsed as expected
+     */
+    public static void forEachCampusPath(Path file, PathAction action) {
+        try (CsvReader csv = new CsvReader(file)) {
+            parsePaths(csv, action);
+        } catch (IOException e) {
+            throw new ParserException("Cannot read file: " + file, e);
+        }
+    }
+
+    /**
+     * Parses the rows of a campus paths file, handing each one to an action.
+     *
+     * @param csv    The reader of the rows to parse.
+     * @param action The action to perform on the values of each row.
+     * @throws ParserException if a row cannot be parsed as expected
+     * @throws IOException if the file cannot be read
+     */
+    private static void parsePaths(CsvReader csv, PathAction action) throws IOException {
+        while (csv.nextRow()) {
+            if (csv.fieldCount() != 5) {
                 throw new ParserException("Wrong number of fields in line");
             }
             double x1, x2, y1, y2, distance;
             try {
-                x1 = Double.parseDouble(fields[0]);
-                y1 = Double.parseDouble(fields[1]);
-                x2 = Double.parseDouble(fields[2]);
-                y2 = Double.parseDouble(fields[3]);
-                distance = Double.parseDouble(fields[4]);
+                x1 = csv.getDouble(0);
+                y1 = csv.getDouble(1);
+                x2 = csv.getDouble(2);
+                y2 = csv.getDouble(3);
+                distance = csv.getDouble(4);
             } catch (NumberFormatException e) {
                 throw new ParserException("Cannot parse x/y coordinates as numbers", e);
             }
             //
-            paths.add(new CampusPath(x1, y1, x2, y2, distance));
+            action.accept(x1, y1, x2, y2, distance);
         }
-        //
-        return paths;
     }
 
     /**
-     * Reads all lines contained within the provided data file, which is located
+     * Opens a reader of the provided data file, which is located
      * relative to the data/ folder in this parser's classpath.
      *
      * @param filename The file to read.
-     * @throws ParserException if the file doesn't exist, has an invalid name, or can't be read
-     * @return A new {@link List<String>} containing all lines in the file.
+     * @throws ParserException if the file doesn't exist or has an invalid name
+     * @return A new {@link CsvReader} of the rows in the file.
      */
-    private static List<String> readLines(String filename) {
+    private static CsvReader open(String filename) {
         // See MarvelParser.java (from hw-marvel) for an explanation of this code
         InputStream stream = CampusPathsParser.class.getResourceAsStream("/data/" + filename);
         if (stream == null) {
             throw new ParserException("No such file: " + filename);
         }
-        return new BufferedReader(new InputStreamReader(stream)).lines().collect(Collectors.toList());
+        return new CsvReader(stream);
+    }
+
+    /**
+     * An action performed on the values of one line of a campus paths file.
+     */
+    @FunctionalInterface
+    public interface PathAction {
+
+        /**
+         * Performs this action on the values of one line.
+         *
+         * @param x1       The x coordinate of the path's start.
+         * @param y1       The y coordinate of the path's start.
+         * @param x2       The x coordinate of the path's end.
+         * @param y2       The y coordinate of the path's end.
+         * @param distance The length of the path.
+         */
+        void accept(double x1, double y1, double x2, double y2, double distance);
     }
 
     /**
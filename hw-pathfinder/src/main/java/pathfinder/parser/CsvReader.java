@@ -0,0 +1,283 @@
+package pathfinder.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A streaming reader of comma-separated rows, one row per line, with no quoting.
+ * <p>
+ * The input is read from a byte channel in large blocks into one buffer, and each row is split
+ * into fields in place: a field is only the start and end of its bytes in the buffer. Nothing is
+ * allocated per row unless a field is asked for as a String, and {@link #getDouble(int)} parses
+ * numbers straight from the bytes. Only one row is held at a time, so a file of any size is read
+ * in memory proportional to its longest line.
+ * <p>
+ * Lines may end in "\n" or "\r\n", and the last line need not end at all. A row is split into
+ * fields the way {@link String#split(String)} splits a line on ",": empty fields at the end of a
+ * row are dropped, so "a,b," has the two fields "a" and "b", except that a row with no comma at
+ * all, even an empty one, is one field. A CsvReader is not thread-safe.
+ */
+public class CsvReader implements Closeable {
+
+    // Powers of ten that are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // The largest integer such that it and every smaller one are exactly representable as doubles
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // AF(this) =
+    //      the unread input => buf[pos..limit) followed by whatever channel has not yet returned
+    //      the current row => buf[rowStart..pos), whose i-th field, for 0 <= i < fieldCount, is
+    //                         buf[rowStart + starts[i] .. rowStart + ends[i])
+    //      the number of the current row => rows
+
+    // Rep Invariant:
+    //      0 <= rowStart <= pos <= limit <= buf.length &&
+    //      starts.length == ends.length && fieldCount <= starts.length &&
+    //      0 <= starts[i] <= ends[i] <= pos - rowStart for 0 <= i < fieldCount
+
+    private final ReadableByteChannel channel;
+    private byte[] buf = new byte[BUFFER_SIZE];
+    private ByteBuffer window = ByteBuffer.wrap(buf);
+    private int rowStart;
+    private int pos;
+    private int limit;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int fieldCount;
+    private int rows;
+
+    /**
+     * Creates a reader of the rows in a channel.
+     *
+     * @param channel The channel to read, which this reader closes when it is closed.
+     * @spec.requires channel != null
+     */
+    public CsvReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a reader of the rows in a stream.
+     *
+     * @param stream The stream to read, which this reader closes when it is closed.
+     * @spec.requires stream != null
+     */
+    public CsvReader(InputStream stream) {
+        this(Channels.newChannel(stream));
+    }
+
+    /**
+     * Creates a reader of the rows in a file.
+     *
+     * @param file The file to read.
+     * @throws IOException if the file cannot be opened.
+     * @spec.requires file != null
+     */
+    public CsvReader(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Moves on to the next row of the input.
+     *
+     * @return {@literal true} if there was another row, which is now the current row, or
+     * {@literal false} if the input has ended.
+     * @throws IOException if the input cannot be read.
+     */
+    public boolean nextRow() throws IOException {
+        rowStart = pos;
+        fieldCount = 0;
+        int fieldStart = 0;
+        while (true) {
+            if (pos == limit && !fill()) {
+                if (pos == rowStart) {
+                    return false;
+                }
+                // the last line has no line break
+                endRow(fieldStart);
+                return true;
+            }
+            byte b = buf[pos];
+            if (b == ',') {
+                endField(fieldStart, pos - rowStart);
+                pos++;
+                fieldStart = pos - rowStart;
+            } else if (b == '\n') {
+                endRow(fieldStart);
+                pos++;
+                return true;
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * @return The number of rows read so far, which is the line number of the current row.
+     */
+    public int rowNumber() {
+        return rows;
+    }
+
+    /**
+     * @return The number of fields in the current row.
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @param field The index of a field in the current row.
+     * @return The field, decoded as UTF-8.
+     * @throws IndexOutOfBoundsException if there is no such field.
+     */
+    public String getString(int field) {
+        checkField(field);
+        return new String(buf, rowStart + starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a field of the current row as a double, exactly as {@link Double#parseDouble(String)}
+     * would. Plain decimals of up to 15 significant digits, like "-1234.5678", are converted
+     * directly from their bytes; any other text is handed to {@link Double#parseDouble(String)}.
+     *
+     * @param field The index of a field in the current row.
+     * @return The value of the field.
+     * @throws NumberFormatException if the field is not a number.
+     * @throws IndexOutOfBoundsException if there is no such field.
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int i = rowStart + starts[field];
+        int end = rowStart + ends[field];
+        boolean negative = false;
+        if (i < end && buf[i] == '-') {
+            negative = true;
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                if (digits == 18) {
+                    return parseSlowly(field);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (point) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                return parseSlowly(field);
+            }
+        }
+        if (digits == 0 || mantissa > MAX_EXACT_LONG || fractionDigits >= POWERS_OF_TEN.length) {
+            return parseSlowly(field);
+        }
+        // Both operands are exact, so the one rounding of the division gives the correctly
+        // rounded value, the same one Double.parseDouble finds.
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Parses a field with {@link Double#parseDouble(String)}.
+     */
+    private double parseSlowly(int field) {
+        return Double.parseDouble(getString(field));
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the current row has no such field.
+     */
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Row " + rows + " has no field " + field);
+        }
+    }
+
+    /**
+     * Ends the last field of the current row, which runs to pos, drops the empty fields at the
+     * end of the row if it has more than one, and counts the row.
+     */
+    private void endRow(int fieldStart) {
+        int end = pos - rowStart;
+        if (end > fieldStart && buf[pos - 1] == '\r') {
+            end--;
+        }
+        endField(fieldStart, end);
+        if (fieldCount > 1) {
+            while (fieldCount > 0 && starts[fieldCount - 1] == ends[fieldCount - 1]) {
+                fieldCount--;
+            }
+        }
+        rows++;
+    }
+
+    /**
+     * Records a field of the current row, given relative to the row's start.
+     */
+    private void endField(int start, int end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, 2 * fieldCount);
+            ends = Arrays.copyOf(ends, 2 * fieldCount);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    /**
+     * Reads more input after buf[limit - 1], first moving the current row to the front of the
+     * buffer, or growing the buffer if the row already fills it.
+     *
+     * @return {@literal false} if the input has ended.
+     */
+    private boolean fill() throws IOException {
+        if (rowStart > 0) {
+            int kept = limit - rowStart;
+            System.arraycopy(buf, rowStart, buf, 0, kept);
+            pos -= rowStart;
+            limit = kept;
+            rowStart = 0;
+        } else if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, 2 * buf.length);
+            window = ByteBuffer.wrap(buf);
+        }
+        window.limit(buf.length).position(limit);
+        int read;
+        do {
+            read = channel.read(window);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package pathfinder.junitTests;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pathfinder.CampusMap;
+import pathfinder.datastructures.CompactPath;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestCampusMap {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D);
+
+    private static List<CampusBuilding> buildings;
+    private static CampusMap map;
+
+    @BeforeClass
+    public static void loadCampus() {
+        buildings = CampusPathsParser.parseCampusBuildings("campus_buildings.csv");
+        map = new CampusMap(buildings, CampusPathsParser.parseCampusPaths("campus_paths.csv"));
+    }
+
+    @Test
+    public void testBatchMatchesSingleRoutes() {
+        List<String> starts = new ArrayList<>();
+        List<String> ends = new ArrayList<>();
+        for (int i = 0; i < buildings.size(); i += 5) {
+            for (int j = 0; j < buildings.size(); j += 3) {
+                starts.add(buildings.get(i).getShortName());
+                ends.add(buildings.get(j).getShortName());
+            }
+        }
+        // a fresh map, so the batch has to search rather than read the cache
+        CampusMap fresh = new CampusMap(buildings, CampusPathsParser.parseCampusPaths("campus_paths.csv"));
+        List<CompactPath> routes = fresh.findShortestPaths(starts, ends);
+        assertEquals(starts.size(), routes.size());
+        for (int k = 0; k < starts.size(); k++) {
+            Path<Point> single = map.findShortestPath(starts.get(k), ends.get(k));
+            assertEquals(single.getCost(), routes.get(k).getCost(), EPSILON);
+            assertEquals(single.getStart(), routes.get(k).getStart());
+            assertEquals(single.getEnd(), routes.get(k).getEnd());
+        }
+    }
+
+    @Test
+    public void testDistancesMatchSingleRoutes() {
+        Map<String, Double> distances = map.distancesFrom("CSE");
+        assertEquals(buildings.size(), distances.size());
+        assertEquals(0.0, distances.get("CSE"), 0.0);
+        for (CampusBuilding b : buildings) {
+            assertEquals(map.findShortestPath("CSE", b.getShortName()).getCost(),
+                         distances.get(b.getShortName()), EPSILON);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDistancesRejectUnknownBuilding() {
+        map.distancesFrom("NOT A BUILDING");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchRejectsUnknownBuilding() {
+        map.findShortestPaths(Arrays.asList("CSE", "NOT A BUILDING"), Arrays.asList("KNE", "CSE"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchRejectsUnpairedStart() {
+        map.findShortestPaths(Arrays.asList("CSE", "KNE"), Arrays.asList("KNE"));
+    }
+
+    @Test
+    public void testRepeatedShortName() {
+        // two buildings share the short name A: the second one, at (2, 0), is the one routed to
+        // and named by buildingNames, but longNameForShort names the first
+        List<CampusBuilding> duplicates = List.of(
+                new CampusBuilding("A", "First A", 0.0, 0.0),
+                new CampusBuilding("B", "B", 1.0, 0.0),
+                new CampusBuilding("A", "Second A", 2.0, 0.0));
+        List<CampusPath> paths = List.of(
+                new CampusPath(0.0, 0.0, 1.0, 0.0, 1.0),
+                new CampusPath(1.0, 0.0, 2.0, 0.0, 5.0));
+        CampusMap small = new CampusMap(duplicates, paths);
+        assertTrue(small.shortNameExists("A"));
+        assertEquals("First A", small.longNameForShort("A"));
+        assertEquals("Second A", small.buildingNames().get("A"));
+        assertEquals(2, small.buildingNames().size());
+        Path<Point> path = small.findShortestPath("B", "A");
+        assertEquals(new Point(2.0, 0.0), path.getEnd());
+        assertEquals(5.0, path.getCost(), EPSILON);
+    }
+}
@@ -0,0 +1,71 @@
+package pathfinder.junitTests;
+
+import org.junit.Test;
+import pathfinder.parser.CampusBuilding;
+import pathfinder.parser.CampusPath;
+import pathfinder.parser.CampusPathsParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestCampusPathsParser {
+
+    /**
+     * Copies a bundled data file into a new temporary file.
+     */
+    private static Path copyOfResource(String name) throws IOException {
+        Path file = Files.createTempFile("campus", ".csv");
+        file.toFile().deleteOnExit();
+        try (InputStream in = TestCampusPathsParser.class.getResourceAsStream("/data/" + name)) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    @Test
+    public void testBuildingsFromFileMatchClasspath() throws IOException {
+        Path file = copyOfResource("campus_buildings.csv");
+        assertEquals(CampusPathsParser.parseCampusBuildings("campus_buildings.csv"),
+                CampusPathsParser.parseCampusBuildings(file));
+    }
+
+    @Test
+    public void testPathsFromFileMatchClasspath() throws IOException {
+        Path file = copyOfResource("campus_paths.csv");
+        assertEquals(CampusPathsParser.parseCampusPaths("campus_paths.csv"),
+                CampusPathsParser.parseCampusPaths(file));
+    }
+
+    @Test
+    public void testFileIsReadAgainAfterItChanges() throws IOException {
+        Path file = Files.createTempFile("campus", ".csv");
+        file.toFile().deleteOnExit();
+        Files.write(file, List.of("CSE,Computer Science,1.5,2.5"));
+        assertEquals(List.of(new CampusBuilding("CSE", "Computer Science", 1.5, 2.5)),
+                CampusPathsParser.parseCampusBuildings(file));
+
+        Files.write(file, List.of("1.0,2.0,3.0,4.0,5.5"));
+        assertEquals(List.of(new CampusPath(1.0, 2.0, 3.0, 4.0, 5.5)),
+                CampusPathsParser.parseCampusPaths(file));
+    }
+
+    @Test
+    public void testTrailingCommaIsAllowed() throws IOException {
+        Path file = Files.createTempFile("campus", ".csv");
+        file.toFile().deleteOnExit();
+        Files.write(file, List.of("A,Name,1,2,"));
+        assertEquals(List.of(new CampusBuilding("A", "Name", 1, 2)),
+                CampusPathsParser.parseCampusBuildings(file));
+    }
+
+    @Test(expected = CampusPathsParser.ParserException.class)
+    public void testMissingFile() {
+        CampusPathsParser.parseCampusPaths(Path.of("no/such/campus_paths.csv"));
+    }
+}
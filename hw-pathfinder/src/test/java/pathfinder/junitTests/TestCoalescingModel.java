@@ -0,0 +1,109 @@
+package pathfinder.junitTests;
+
+import org.junit.Test;
+import pathfinder.CoalescingModel;
+import pathfinder.ModelAPI;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCoalescingModel {
+
+    /**
+     * A model whose routes block until released, counting how many it computes.
+     */
+    private static class SlowModel implements ModelAPI {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger computed = new AtomicInteger();
+
+        @Override
+        public boolean shortNameExists(String shortName) {
+            return true;
+        }
+
+        @Override
+        public String longNameForShort(String shortName) {
+            return shortName;
+        }
+
+        @Override
+        public Map<String, String> buildingNames() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Path<Point> findShortestPath(String startShortName, String endShortName) {
+            computed.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (startShortName.equals("BAD")) {
+                throw new IllegalArgumentException("Start or destination building not found.");
+            }
+            return new Path<>(new Point(0.0, 0.0)).extend(new Point(1.0, 0.0), 1.0);
+        }
+    }
+
+    @Test
+    public void testConcurrentIdenticalQueriesShareOneComputation() throws InterruptedException {
+        SlowModel slow = new SlowModel();
+        CoalescingModel model = new CoalescingModel(slow);
+        @SuppressWarnings("unchecked")
+        Path<Point>[] results = new Path[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> results[index] = model.findShortestPath("CSE", "KNE"));
+        }
+        threads[0].start();
+        assertTrue(slow.entered.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < threads.length; i++) {
+            threads[i].start();
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (model.coalescedCount() < threads.length - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        slow.release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, slow.computed.get());
+        assertEquals(threads.length - 1, model.coalescedCount());
+        for (Path<Point> result : results) {
+            assertSame(results[0], result);
+        }
+    }
+
+    @Test
+    public void testLaterQueriesRunAgain() {
+        SlowModel slow = new SlowModel();
+        slow.release.countDown();
+        CoalescingModel model = new CoalescingModel(slow);
+        model.findShortestPath("CSE", "KNE");
+        model.findShortestPath("CSE", "KNE");
+        assertEquals(2, slow.computed.get());
+        assertEquals(0, model.coalescedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailuresPropagate() {
+        SlowModel slow = new SlowModel();
+        slow.release.countDown();
+        new CoalescingModel(slow).findShortestPath("BAD", "KNE");
+    }
+}
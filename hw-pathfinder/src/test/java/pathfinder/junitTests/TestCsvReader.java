@@ -0,0 +1,143 @@
+package pathfinder.junitTests;
+
+import org.junit.Test;
+import pathfinder.parser.CsvReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestCsvReader {
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testRowsAndFields() throws IOException {
+        CsvReader csv = reader("a,b,c\r\nd,,f\n\nlast");
+        assertTrue(csv.nextRow());
+        assertEquals(3, csv.fieldCount());
+        assertEquals("a", csv.getString(0));
+        assertEquals("c", csv.getString(2));
+        assertTrue(csv.nextRow());
+        assertEquals(3, csv.fieldCount());
+        assertEquals("", csv.getString(1));
+        assertTrue(csv.nextRow());
+        assertEquals(1, csv.fieldCount());
+        assertEquals("", csv.getString(0));
+        assertTrue(csv.nextRow());
+        assertEquals("last", csv.getString(0));
+        assertEquals(4, csv.rowNumber());
+        assertFalse(csv.nextRow());
+        assertFalse(csv.nextRow());
+    }
+
+    @Test
+    public void testTrailingEmptyFieldsAreDropped() throws IOException {
+        String[] lines = {"A,Name,1,2,", "a,,b,,\r", ",,", "a", "", ",a"};
+        CsvReader csv = reader(String.join("\n", lines));
+        for (String line : lines) {
+            // the same fields String.split gives, with the line break already removed
+            String[] expected = line.replace("\r", "").split(",");
+            assertTrue(csv.nextRow());
+            assertEquals(line, expected.length, csv.fieldCount());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], csv.getString(i));
+            }
+        }
+        assertFalse(csv.nextRow());
+    }
+
+    @Test
+    public void testNoRows() throws IOException {
+        assertFalse(reader("").nextRow());
+    }
+
+    @Test
+    public void testNonAsciiString() throws IOException {
+        CsvReader csv = reader("Café,1\n");
+        assertTrue(csv.nextRow());
+        assertEquals("Café", csv.getString(0));
+    }
+
+    @Test
+    public void testDoublesMatchParseDouble() throws IOException {
+        String[] texts = {"0", "-0", "1.", ".5", "-1234.5678", "1536.287", "43.73364306994077",
+                "9007199254740993", "0.1000000000000000055511151231257827", "1e3", "+2.5",
+                " 7.25 ", "Infinity", "NaN"};
+        CsvReader csv = reader(String.join(",", texts));
+        assertTrue(csv.nextRow());
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(texts[i], Double.parseDouble(texts[i]), csv.getDouble(i), 0.0);
+            assertEquals(texts[i], Double.doubleToRawLongBits(Double.parseDouble(texts[i])),
+                    Double.doubleToRawLongBits(csv.getDouble(i)));
+        }
+    }
+
+    @Test
+    public void testRandomDoublesMatchParseDouble() throws IOException {
+        Random random = new Random(331);
+        String[] texts = new String[10000];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12)));
+        }
+        CsvReader csv = reader(String.join(",", texts));
+        assertTrue(csv.nextRow());
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(texts[i], Double.doubleToRawLongBits(Double.parseDouble(texts[i])),
+                    Double.doubleToRawLongBits(csv.getDouble(i)));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNotANumber() throws IOException {
+        CsvReader csv = reader("12.3.4");
+        assertTrue(csv.nextRow());
+        csv.getDouble(0);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testEmptyNumber() throws IOException {
+        CsvReader csv = reader("-");
+        assertTrue(csv.nextRow());
+        csv.getDouble(0);
+    }
+
+    @Test
+    public void testRowsAcrossBufferBoundaries() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            text.append(i).append(',').append(i / 4.0).append('\n');
+        }
+        // one line longer than the whole buffer
+        StringBuilder longField = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            longField.append((char) ('a' + i % 26));
+        }
+        text.append(longField).append(",1\n");
+
+        CsvReader csv = reader(text.toString());
+        for (int i = 0; i < 50000; i++) {
+            assertTrue(csv.nextRow());
+            assertEquals(Integer.toString(i), csv.getString(0));
+            assertEquals(i / 4.0, csv.getDouble(1), 0.0);
+        }
+        assertTrue(csv.nextRow());
+        assertEquals(longField.toString(), csv.getString(0));
+        assertEquals(1.0, csv.getDouble(1), 0.0);
+        assertFalse(csv.nextRow());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNoSuchField() throws IOException {
+        CsvReader csv = reader("a,b");
+        assertTrue(csv.nextRow());
+        csv.getString(2);
+    }
+}
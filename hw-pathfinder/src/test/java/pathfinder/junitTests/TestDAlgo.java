@@ -0,0 +1,89 @@
+package pathfinder.junitTests;
+
+import org.junit.Test;
+import pathfinder.DAlgo;
+import pathfinder.datastructures.Path;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestDAlgo {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D);
+
+    /**
+     * An adjacency map that records every node whose children are looked up, which DAlgo does
+     * exactly once for each node it expands.
+     */
+    private static class RecordingGraph extends HashMap<String, Map<String, Double>> {
+        private final List<Object> expanded = new ArrayList<>();
+
+        void addEdge(String parent, String child, double cost) {
+            computeIfAbsent(parent, k -> new HashMap<>()).put(child, cost);
+        }
+
+        @Override
+        public Map<String, Double> get(Object key) {
+            expanded.add(key);
+            return super.get(key);
+        }
+    }
+
+    @Test
+    public void testStopsAtDestination() {
+        // A chain a - b - c - d, where d is far past b
+        RecordingGraph graph = new RecordingGraph();
+        graph.addEdge("a", "b", 1.0);
+        graph.addEdge("b", "c", 1.0);
+        graph.addEdge("c", "d", 1.0);
+
+        Path<String> path = new DAlgo<>("a", "b").method(graph);
+        assertEquals(1.0, path.getCost(), EPSILON);
+        // only a was expanded: the search ended as soon as b came off the queue
+        assertEquals(List.of("a"), graph.expanded);
+
+        graph.expanded.clear();
+        new DAlgo<>("a", "b", false).method(graph);
+        assertTrue(graph.expanded.contains("c"));
+        assertTrue(graph.expanded.contains("d"));
+    }
+
+    @Test
+    public void testSkipsStaleQueueEntries() {
+        // c is queued at cost 10 from a, then again at cost 2 through b; the first entry is stale
+        RecordingGraph graph = new RecordingGraph();
+        graph.addEdge("a", "c", 10.0);
+        graph.addEdge("a", "b", 1.0);
+        graph.addEdge("b", "c", 1.0);
+        graph.addEdge("c", "d", 1.0);
+
+        Path<String> path = new DAlgo<>("a", "d", false).method(graph);
+        assertEquals(3.0, path.getCost(), EPSILON);
+        // every node is expanded once, however many times it was queued
+        assertEquals(List.of("a", "b", "c", "d"), graph.expanded);
+    }
+
+    @Test
+    public void testSegmentsCarryTheirOwnCost() {
+        RecordingGraph graph = new RecordingGraph();
+        graph.addEdge("a", "b", 1.5);
+        graph.addEdge("b", "c", 2.0);
+        graph.addEdge("c", "d", 4.0);
+
+        Path<String> path = new DAlgo<>("a", "d").method(graph);
+        Iterator<Path<String>.Segment> segments = path.iterator();
+        // each segment costs only its own edge, not the running total up to it
+        assertEquals(1.5, segments.next().getCost(), EPSILON);
+        assertEquals(2.0, segments.next().getCost(), EPSILON);
+        assertEquals(4.0, segments.next().getCost(), EPSILON);
+        assertFalse(segments.hasNext());
+        assertEquals(7.5, path.getCost(), EPSILON);
+    }
+}
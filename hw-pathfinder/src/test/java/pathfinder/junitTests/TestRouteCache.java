@@ -0,0 +1,87 @@
+package pathfinder.junitTests;
+
+import org.junit.Test;
+import pathfinder.RouteCache;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestRouteCache {
+
+    private static Path<Point> route(double x) {
+        return new Path<>(new Point(0.0, 0.0)).extend(new Point(x, 0.0), x);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        RouteCache<Point> cache = new RouteCache<>(4, RouteCache.Policy.LRU, false);
+        Path<Point> ab = route(1.0);
+        assertNull(cache.get("A", "B"));
+        cache.put("A", "B", ab);
+        assertSame(ab, cache.get("A", "B"));
+        assertNull(cache.get("B", "A"));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(0, cache.evictions());
+    }
+
+    @Test
+    public void testSymmetricReusesReverseRoute() {
+        RouteCache<Point> cache = new RouteCache<>(4, RouteCache.Policy.LRU, true);
+        Path<Point> ab = route(1.0);
+        cache.put("A", "B", ab);
+        assertEquals(ab.reverse(), cache.get("B", "A"));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        RouteCache<Point> cache = new RouteCache<>(2, RouteCache.Policy.LRU, false);
+        cache.put("A", "B", route(1.0));
+        cache.put("A", "C", route(2.0));
+        cache.get("A", "B");
+        cache.put("A", "D", route(3.0));
+        assertEquals(1, cache.evictions());
+        assertEquals(route(1.0), cache.get("A", "B"));
+        assertNull(cache.get("A", "C"));
+        assertEquals(route(3.0), cache.get("A", "D"));
+    }
+
+    @Test
+    public void testLfuEvictsLeastFrequentlyUsed() {
+        RouteCache<Point> cache = new RouteCache<>(2, RouteCache.Policy.LFU, false);
+        cache.put("A", "B", route(1.0));
+        cache.put("A", "C", route(2.0));
+        cache.get("A", "B");
+        cache.get("A", "B");
+        cache.get("A", "C");
+        // A-C was used more recently, but fewer times
+        cache.put("A", "D", route(3.0));
+        assertNull(cache.get("A", "C"));
+        cache.put("A", "E", route(4.0));
+        assertNull(cache.get("A", "D"));
+        assertEquals(route(1.0), cache.get("A", "B"));
+        assertEquals(route(4.0), cache.get("A", "E"));
+        assertEquals(2, cache.evictions());
+    }
+
+    @Test
+    public void testClear() {
+        RouteCache<Point> cache = new RouteCache<>(2, RouteCache.Policy.LFU, true);
+        cache.put("A", "B", route(1.0));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("A", "B"));
+        cache.put("A", "B", route(1.0));
+        assertEquals(route(1.0), cache.get("A", "B"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacityRejected() {
+        new RouteCache<Point>(0, RouteCache.Policy.LRU, false);
+    }
+}
@@ -0,0 +1,254 @@
+package pathfinder.junitTests;
+
+import graph.FrozenLabeledGraph;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import pathfinder.AStar;
+import pathfinder.BidirectionalDijkstra;
+import pathfinder.ContractionHierarchy;
+import pathfinder.DAlgo;
+import pathfinder.PrimitiveDijkstra;
+import pathfinder.RouteTable;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TestShortestPathEngines {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D);
+
+    private static final Point A = new Point(0.0, 0.0);
+    private static final Point B = new Point(1.0, 0.0);
+    private static final Point C = new Point(2.0, 0.0);
+    private static final Point D = new Point(1.0, 1.0);
+    private static final Point E = new Point(5.0, 5.0);
+    private static final Point LONELY = new Point(9.0, 9.0);
+
+    private static Map<Point, Map<Point, Double>> graphMap;
+    private static FrozenLabeledGraph<Point, Double> graph;
+
+    @BeforeClass
+    public static void buildGraph() {
+        // Edge costs are twice the straight-line length, except the A-D-C detour which is cheaper
+        // per unit of length, so the heuristic scale has to come from the data.
+        graphMap = new HashMap<>();
+        addEdge(A, B, 2.0);
+        addEdge(B, C, 2.0);
+        addEdge(A, D, Math.sqrt(2.0) * 1.25);
+        addEdge(D, C, Math.sqrt(2.0) * 1.25);
+        addEdge(C, E, 10.0);
+        graphMap.put(LONELY, new HashMap<>());
+        graph = FrozenLabeledGraph.fromAdjacency(graphMap);
+    }
+
+    private static void addEdge(Point from, Point to, double cost) {
+        graphMap.computeIfAbsent(from, k -> new HashMap<>()).put(to, cost);
+        graphMap.computeIfAbsent(to, k -> new HashMap<>()).put(from, cost);
+    }
+
+    private static Path<Point> expected(Point... points) {
+        Path<Point> path = new Path<>(points[0]);
+        for (int i = 1; i < points.length; i++) {
+            path = path.extend(points[i], graphMap.get(points[i - 1]).get(points[i]));
+        }
+        return path;
+    }
+
+    @Test
+    public void testDAlgoPrefersCheaperDetour() {
+        Path<Point> path = new DAlgo<>(A, E).method(graphMap);
+        assertEquals(expected(A, D, C, E), path);
+        assertEquals(Math.sqrt(2.0) * 2.5 + 10.0, path.getCost(), EPSILON);
+    }
+
+    @Test
+    public void testDAlgoFullSweepAgrees() {
+        assertEquals(new DAlgo<>(A, E).method(graphMap), new DAlgo<>(A, E, false).method(graphMap));
+    }
+
+    @Test
+    public void testPrimitiveDijkstra() {
+        PrimitiveDijkstra<Point> engine = new PrimitiveDijkstra<>(graph);
+        assertEquals(expected(A, D, C, E), engine.findPath(A, E));
+        assertEquals(expected(E, C, D, A), engine.findPath(E, A));
+        assertEquals(new Path<>(B), engine.findPath(B, B));
+        assertNull(engine.findPath(A, LONELY));
+        assertNull(engine.findPath(A, new Point(-1.0, -1.0)));
+    }
+
+    @Test
+    public void testAStar() {
+        AStar<Point> engine = new AStar<>(graph, AStar.euclidean(graph));
+        assertEquals(expected(A, D, C, E), engine.findPath(A, E));
+        assertEquals(expected(E, C, D, A), engine.findPath(E, A));
+        assertEquals(new Path<>(B), engine.findPath(B, B));
+        assertNull(engine.findPath(A, LONELY));
+    }
+
+    @Test
+    public void testBidirectionalDijkstra() {
+        BidirectionalDijkstra<Point> engine = new BidirectionalDijkstra<>(graph);
+        assertEquals(expected(A, D, C, E), engine.findPath(A, E));
+        assertEquals(expected(E, C, D, A), engine.findPath(E, A));
+        assertEquals(expected(B, C), engine.findPath(B, C));
+        assertEquals(new Path<>(B), engine.findPath(B, B));
+        assertNull(engine.findPath(A, LONELY));
+    }
+
+    @Test
+    public void testBidirectionalDijkstraOneWayEdges() {
+        Map<Point, Map<Point, Double>> oneWay = new HashMap<>();
+        oneWay.computeIfAbsent(A, k -> new HashMap<>()).put(B, 1.0);
+        oneWay.computeIfAbsent(B, k -> new HashMap<>()).put(C, 1.0);
+        oneWay.computeIfAbsent(C, k -> new HashMap<>()).put(A, 5.0);
+        BidirectionalDijkstra<Point> engine = new BidirectionalDijkstra<>(FrozenLabeledGraph.fromAdjacency(oneWay));
+        assertEquals(2.0, engine.findPath(A, C).getCost(), EPSILON);
+        assertEquals(5.0, engine.findPath(C, A).getCost(), EPSILON);
+        assertEquals(6.0, engine.findPath(B, A).getCost(), EPSILON);
+    }
+
+    @Test
+    public void testContractionHierarchy() {
+        ContractionHierarchy<Point> engine = new ContractionHierarchy<>(graph);
+        // shortcuts must be unpacked back into the original segments
+        assertEquals(expected(A, D, C, E), engine.findPath(A, E));
+        assertEquals(expected(E, C, D, A), engine.findPath(E, A));
+        assertEquals(expected(B, C), engine.findPath(B, C));
+        assertEquals(new Path<>(B), engine.findPath(B, B));
+        assertNull(engine.findPath(A, LONELY));
+    }
+
+    @Test
+    public void testContractionHierarchyAgreesWithDijkstra() {
+        // a 6x6 grid with uneven costs forces shortcuts between many pairs of neighbours
+        Map<Point, Map<Point, Double>> grid = new HashMap<>();
+        for (int x = 0; x < 6; x++) {
+            for (int y = 0; y < 6; y++) {
+                Point p = new Point(x, y);
+                Point right = new Point(x + 1, y);
+                Point up = new Point(x, y + 1);
+                if (x + 1 < 6) {
+                    grid.computeIfAbsent(p, k -> new HashMap<>()).put(right, 1.0 + (x * y) % 3);
+                    grid.computeIfAbsent(right, k -> new HashMap<>()).put(p, 1.0 + (x * y) % 3);
+                }
+                if (y + 1 < 6) {
+                    grid.computeIfAbsent(p, k -> new HashMap<>()).put(up, 1.0 + (x + y) % 4);
+                    grid.computeIfAbsent(up, k -> new HashMap<>()).put(p, 1.0 + (x + y) % 4);
+                }
+            }
+        }
+        FrozenLabeledGraph<Point, Double> frozen = FrozenLabeledGraph.fromAdjacency(grid);
+        ContractionHierarchy<Point> hierarchy = new ContractionHierarchy<>(frozen);
+        PrimitiveDijkstra<Point> dijkstra = new PrimitiveDijkstra<>(frozen);
+        for (int start = 0; start < frozen.size(); start++) {
+            for (int dest = 0; dest < frozen.size(); dest++) {
+                assertEquals(dijkstra.findPath(start, dest).getCost(),
+                             hierarchy.findPath(start, dest).getCost(), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testRouteTable() {
+        RouteTable<Point> table = new RouteTable<>(graph, Arrays.asList(A, C, E, A, LONELY, new Point(-1.0, -1.0)));
+        assertEquals(4, table.endpointCount());
+        assertEquals(expected(A, D, C, E), table.findPath(A, E));
+        assertEquals(expected(E, C, D, A), table.findPath(E, A));
+        assertEquals(new Path<>(C), table.findPath(C, C));
+        // destinations need not be endpoints, and other starts fall back to a search
+        assertEquals(expected(A, B), table.findPath(A, B));
+        assertEquals(expected(B, C, E), table.findPath(B, E));
+        assertNull(table.findPath(A, LONELY));
+        assertNull(table.findPath(LONELY, A));
+        assertEquals(Math.sqrt(2.0) * 2.5 + 10.0, table.getCost(A, E), EPSILON);
+        assertEquals(Double.POSITIVE_INFINITY, table.getCost(E, LONELY), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRouteTableCostOfNonEndpoint() {
+        new RouteTable<>(graph, Arrays.asList(A, C)).getCost(A, B);
+    }
+
+    @Test
+    public void testEnginesAreReusableAcrossThreads() throws InterruptedException {
+        // a 12x12 grid, so every query from a corner covers most of the graph
+        Map<Point, Map<Point, Double>> grid = new HashMap<>();
+        for (int x = 0; x < 12; x++) {
+            for (int y = 0; y < 12; y++) {
+                Point p = new Point(x, y);
+                if (x + 1 < 12) {
+                    grid.computeIfAbsent(p, k -> new HashMap<>()).put(new Point(x + 1, y), 1.0 + (x * y) % 5);
+                    grid.computeIfAbsent(new Point(x + 1, y), k -> new HashMap<>()).put(p, 1.0 + (x * y) % 5);
+                }
+                if (y + 1 < 12) {
+                    grid.computeIfAbsent(p, k -> new HashMap<>()).put(new Point(x, y + 1), 1.0 + (x + y) % 3);
+                    grid.computeIfAbsent(new Point(x, y + 1), k -> new HashMap<>()).put(p, 1.0 + (x + y) % 3);
+                }
+            }
+        }
+        FrozenLabeledGraph<Point, Double> frozen = FrozenLabeledGraph.fromAdjacency(grid);
+        PrimitiveDijkstra<Point> dijkstra = new PrimitiveDijkstra<>(frozen);
+        AStar<Point> aStar = new AStar<>(frozen, AStar.euclidean(frozen));
+        BidirectionalDijkstra<Point> bidirectional = new BidirectionalDijkstra<>(frozen);
+        ContractionHierarchy<Point> hierarchy = new ContractionHierarchy<>(frozen);
+        int n = frozen.size();
+        double[][] expected = new double[n][n];
+        for (int start = 0; start < n; start++) {
+            for (int dest = 0; dest < n; dest++) {
+                expected[start][dest] = new DAlgo<>(frozen.getNode(start), frozen.getNode(dest)).method(grid).getCost();
+            }
+        }
+
+        // every thread runs many queries through the same shared engines
+        int[] failures = new int[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                int wrong = 0;
+                try {
+                    for (int start = offset; start < n; start += threads.length) {
+                        for (int dest = 0; dest < n; dest++) {
+                            double cost = expected[start][dest];
+                            if (Math.abs(dijkstra.findPath(start, dest).getCost() - cost) > EPSILON
+                                    || Math.abs(aStar.findPath(start, dest).getCost() - cost) > EPSILON
+                                    || Math.abs(bidirectional.findPath(start, dest).getCost() - cost) > EPSILON
+                                    || Math.abs(hierarchy.findPath(start, dest).getCost() - cost) > EPSILON) {
+                                wrong++;
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    wrong++;
+                }
+                synchronized (failures) {
+                    failures[0] += wrong;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures[0]);
+    }
+
+    @Test
+    public void testDAlgoCanRunAgain() {
+        DAlgo<Point> search = new DAlgo<>(A, E);
+        Path<Point> first = search.method(graphMap);
+        assertEquals(first, search.method(graphMap));
+    }
+
+    @Test
+    public void testEuclideanHeuristicIsScaledToCheapestEdge() {
+        // the cheapest cost per unit of length is 1.25, on the A-D-C detour
+        assertEquals(1.25 * 5.0, AStar.euclidean(graph).applyAsDouble(A, new Point(3.0, 4.0)), EPSILON);
+    }
+}
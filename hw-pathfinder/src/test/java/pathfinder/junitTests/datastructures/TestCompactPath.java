@@ -0,0 +1,71 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.CompactPath;
+import pathfinder.datastructures.Path;
+import pathfinder.datastructures.Point;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestCompactPath {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D);
+
+    private static Path<Point> samplePath() {
+        return new Path<>(new Point(1.0, 2.0)).extend(new Point(3.0, 4.0), 2.5D)
+                                              .extend(new Point(5.0, 6.0), 1.0D);
+    }
+
+    @Test
+    public void testSameSegmentsAsPath() {
+        Path<Point> path = samplePath();
+        CompactPath compact = new CompactPath(path);
+        Iterator<Path<Point>.Segment> expected = path.iterator();
+        for(Path<Point>.Segment segment : compact) {
+            assertEquals(expected.next(), segment);
+        }
+        assertFalse(expected.hasNext());
+        assertEquals(path, compact.toPath());
+    }
+
+    @Test
+    public void testAccessors() {
+        CompactPath compact = new CompactPath(samplePath());
+        assertEquals(3, compact.size());
+        assertEquals(3.5D, compact.getCost(), EPSILON);
+        assertEquals(new Point(1.0, 2.0), compact.getStart());
+        assertEquals(new Point(5.0, 6.0), compact.getEnd());
+        assertEquals(3.0D, compact.getX(1), EPSILON);
+        assertEquals(4.0D, compact.getY(1), EPSILON);
+        assertEquals(0.0D, compact.getCostTo(0), EPSILON);
+        assertEquals(2.5D, compact.getCostTo(1), EPSILON);
+    }
+
+    @Test
+    public void testEmptyPath() {
+        CompactPath compact = new CompactPath(new Path<>(new Point(1.0, 2.0)));
+        assertEquals(1, compact.size());
+        assertEquals(0.0D, compact.getCost(), EPSILON);
+        assertEquals(compact.getStart(), compact.getEnd());
+        assertFalse(compact.iterator().hasNext());
+    }
+
+    @Test
+    public void testWriteJson() throws IOException {
+        StringBuilder json = new StringBuilder();
+        new CompactPath(samplePath()).writeJson(json);
+        assertEquals("{\"cost\":3.5,\"start\":{\"x\":1.0,\"y\":2.0},\"path\":["
+                     + "{\"start\":{\"x\":1.0,\"y\":2.0},\"end\":{\"x\":3.0,\"y\":4.0},\"cost\":2.5},"
+                     + "{\"start\":{\"x\":3.0,\"y\":4.0},\"end\":{\"x\":5.0,\"y\":6.0},\"cost\":1.0}]}",
+                     json.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPointOutOfRange() {
+        new CompactPath(samplePath()).getX(3);
+    }
+}
@@ -0,0 +1,82 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.IndexedMinHeap;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestIndexedMinHeap {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D);
+
+    @Test
+    public void testNewHeapIsEmpty() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        assertTrue(heap.isEmpty());
+        assertEquals(0, heap.size());
+        assertFalse(heap.contains(0));
+    }
+
+    @Test
+    public void testPollInKeyOrder() {
+        IndexedMinHeap heap = new IndexedMinHeap(6);
+        heap.push(3, 5.0);
+        heap.push(0, 2.5);
+        heap.push(5, 9.0);
+        heap.push(1, 0.5);
+        heap.push(4, 2.5);
+        assertEquals(5, heap.size());
+        assertEquals(0.5, heap.peekKey(), EPSILON);
+        assertEquals(1, heap.poll());
+        int tied = heap.poll();
+        assertTrue(tied == 0 || tied == 4);
+        assertEquals(2.5, heap.peekKey(), EPSILON);
+        heap.poll();
+        assertEquals(3, heap.poll());
+        assertEquals(5, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.push(0, 4.0);
+        heap.push(1, 3.0);
+        heap.push(2, 5.0);
+        heap.push(2, 1.0);
+        assertEquals(3, heap.size());
+        assertEquals(2, heap.poll());
+        assertFalse(heap.contains(2));
+        assertEquals(1, heap.poll());
+        assertEquals(0, heap.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncreaseKeyRejected() {
+        IndexedMinHeap heap = new IndexedMinHeap(2);
+        heap.push(1, 1.0);
+        heap.push(1, 2.0);
+    }
+
+    @Test
+    public void testClear() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.push(0, 1.0);
+        heap.push(2, 2.0);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(0));
+        assertFalse(heap.contains(2));
+        heap.push(2, 7.0);
+        assertEquals(2, heap.poll());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPollEmpty() {
+        new IndexedMinHeap(1).poll();
+    }
+}
@@ -53,6 +53,39 @@ public class TestPath {
         assertEquals(2.0D, path.getCost(), 1.0D / (1000.0D * 1000.0D * 1000.0D));
     }
 
+    @Test
+    public void testBranchesFromSharedPrefix() {
+        Path<Point> prefix = new Path<>(new Point(1.0, 2.0)).extend(new Point(3.0, 2.0), 2.0D);
+        // iterate the prefix first, so both branches extend an already materialized path
+        assertEquals(new Point(3.0, 2.0), prefix.iterator().next().getEnd());
+        Path<Point> left = prefix.extend(new Point(3.0, 5.0), 3.0D);
+        Path<Point> right = prefix.extend(new Point(6.0, 2.0), 3.0D);
+        Iterator<Path<Point>.Segment> segments = left.iterator();
+        assertEquals(new Point(3.0, 2.0), segments.next().getEnd());
+        assertEquals(new Point(3.0, 5.0), segments.next().getEnd());
+        assertEquals(new Point(6.0, 2.0), right.getEnd());
+        assertEquals(new Point(3.0, 2.0), prefix.getEnd());
+        assertNotEquals(left, right);
+
+        Path<Point> rebuilt = new Path<>(new Point(1.0, 2.0)).extend(new Point(3.0, 2.0), 2.0D)
+                                                             .extend(new Point(3.0, 5.0), 3.0D);
+        assertEquals(left, rebuilt);
+        assertEquals(left.hashCode(), rebuilt.hashCode());
+    }
+
+    @Test
+    public void testReversePath() {
+        Path<Point> path = new Path<>(new Point(1.0, 2.0));
+        path = path.extend(new Point(3.0, 2.0), 2.0D);
+        path = path.extend(new Point(3.0, 5.0), 3.0D);
+        Path<Point> expected = new Path<>(new Point(3.0, 5.0));
+        expected = expected.extend(new Point(3.0, 2.0), 3.0D);
+        expected = expected.extend(new Point(1.0, 2.0), 2.0D);
+        assertEquals(expected, path.reverse());
+        assertEquals(path.getCost(), path.reverse().getCost(), EPSILON);
+        assertEquals(path, path.reverse().reverse());
+    }
+
     @Test
     public void testNonemptyPathEquality() {
         Path<Point> path1 = new Path<>(new Point(1.0, 2.0));
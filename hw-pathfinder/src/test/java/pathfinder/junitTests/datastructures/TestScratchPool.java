@@ -0,0 +1,69 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.ScratchPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestScratchPool {
+
+    @Test
+    public void testReleasedObjectIsBorrowedAgain() {
+        AtomicInteger made = new AtomicInteger();
+        ScratchPool<int[]> pool = new ScratchPool<>(() -> new int[made.incrementAndGet()], 2);
+        int[] first = pool.borrow();
+        int[] second = pool.borrow();
+        assertNotSame(first, second);
+        assertEquals(2, made.get());
+
+        pool.release(first);
+        assertEquals(1, pool.idle());
+        assertSame(first, pool.borrow());
+        assertEquals(0, pool.idle());
+        assertEquals(2, made.get());
+    }
+
+    @Test
+    public void testKeepsAtMostMaxIdle() {
+        ScratchPool<Object> pool = new ScratchPool<>(Object::new, 3);
+        List<Object> borrowed = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            borrowed.add(pool.borrow());
+        }
+        for (Object scratch : borrowed) {
+            pool.release(scratch);
+        }
+        assertEquals(3, pool.idle());
+    }
+
+    @Test
+    public void testBoundHoldsUnderConcurrentUse() throws InterruptedException {
+        ScratchPool<Object> pool = new ScratchPool<>(Object::new, 4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    pool.release(pool.borrow());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(pool.idle() <= 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaxIdle() {
+        new ScratchPool<>(Object::new, -1);
+    }
+}
@@ -0,0 +1,49 @@
+package pathfinder.junitTests.datastructures;
+
+import org.junit.Test;
+import pathfinder.datastructures.SearchSpace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSearchSpace {
+
+    private static final double EPSILON = Math.pow(10.0D, -9.0D);
+
+    @Test
+    public void testNewSpaceHasNothingReached() {
+        SearchSpace space = new SearchSpace(3);
+        assertEquals(3, space.capacity());
+        assertFalse(space.reached(0));
+        assertEquals(Double.POSITIVE_INFINITY, space.dist(2), 0);
+        assertTrue(space.heap().isEmpty());
+    }
+
+    @Test
+    public void testReach() {
+        SearchSpace space = new SearchSpace(3);
+        space.reach(1, 2.5, 7);
+        assertTrue(space.reached(1));
+        assertEquals(2.5, space.dist(1), EPSILON);
+        assertEquals(7, space.pred(1));
+        assertFalse(space.reached(0));
+    }
+
+    @Test
+    public void testResetForgetsEverything() {
+        SearchSpace space = new SearchSpace(4);
+        space.reach(0, 1.0, -1);
+        space.reach(3, 2.0, 0);
+        space.heap().push(3, 2.0);
+        space.reset();
+        assertFalse(space.reached(0));
+        assertFalse(space.reached(3));
+        assertEquals(Double.POSITIVE_INFINITY, space.dist(3), 0);
+        assertTrue(space.heap().isEmpty());
+        assertFalse(space.heap().contains(3));
+        // the heap accepts the same id again at a larger key, as in a fresh search
+        space.heap().push(3, 5.0);
+        assertEquals(5.0, space.heap().peekKey(), EPSILON);
+    }
+}
@@ -187,4 +187,20 @@ public class TaskSorterTest {
         sorter.addDependency(new Dependency(t2, t3));
         assertEquals(null, sorter.sortTasks());
     }
+
+    @Test
+    public void testBulkCreation() {
+        List<Task> tasks = Arrays.asList(t2, t3, t5, t7, t8, t9, t10, t11, t3);
+        List<Dependency> dependencies = Arrays.asList(dep_11_2, dep_11_9, dep_11_10, dep_5_11,
+            dep_7_11, dep_7_8, dep_8_9, dep_3_8, dep_3_10, dep_3_10);
+        TaskSorter bulk = new TaskSorter(tasks, dependencies);
+
+        addTasks();
+        addDependencies();
+        assertEquals(sorter.getTasks(), bulk.getTasks());
+        for (Task t : sorter.getTasks()) {
+            assertEquals(sorter.getOutgoingDependencies(t), bulk.getOutgoingDependencies(t));
+        }
+        assertEquals(Arrays.asList(t3, t5, t7, t11, t10, t2, t8, t9), bulk.sortTasks());
+    }
 }